@@ -18,6 +18,9 @@ repositories {
 }
 
 dependencies {
+    compileOnly("org.reactivestreams:reactive-streams:1.0.3")
+
+    testImplementation("org.reactivestreams:reactive-streams:1.0.3")
     testImplementation("org.junit.jupiter:junit-jupiter:5.+")
     testImplementation("org.assertj:assertj-core:3.+")
 }
@@ -0,0 +1,153 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link Memoizable} which only retains its value when an {@link AdaptivePolicy} deems it worth the memory: when it
+ * is expensive to evaluate and read repeatedly. Otherwise every read evaluates the value anew.
+ * <p>
+ * The cost of every evaluation is measured, so a supplier which becomes more expensive over time will have its value
+ * retained once its average cost reaches the policy's minimum.
+ * </p>
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class AdaptiveMemoizable<T> implements Memoizable<T> {
+  private static final long DEFAULT_SIZE_ESTIMATE = 64;
+
+  private final @NonNull Supplier<T> supplier;
+  private final @NonNull AdaptivePolicy policy;
+  private final @NonNull ToLongFunction<? super T> sizeEstimator;
+  private AdaptivePolicy.@Nullable Reservation reservation;
+  private boolean hasMemoized = false;
+  private T memoizedValue;
+  private long retainedBytes = 0;
+  private long reads = 0;
+  private long evaluations = 0;
+  private long evaluationNanos = 0;
+
+  /**
+   * Create an adaptive memoizable, estimating every value to take up 64 bytes.
+   *
+   * @param supplier the supplier of the value.
+   * @param policy the policy deciding whether to retain the value.
+   */
+  public AdaptiveMemoizable(final @NonNull Supplier<T> supplier, final @NonNull AdaptivePolicy policy) {
+    this(supplier, policy, value -> DEFAULT_SIZE_ESTIMATE);
+  }
+
+  /**
+   * Create an adaptive memoizable.
+   *
+   * @param supplier the supplier of the value.
+   * @param policy the policy deciding whether to retain the value.
+   * @param sizeEstimator the estimator of the size in bytes of a value.
+   */
+  public AdaptiveMemoizable(final @NonNull Supplier<T> supplier, final @NonNull AdaptivePolicy policy,
+      final @NonNull ToLongFunction<? super T> sizeEstimator) {
+    this.supplier = supplier;
+    this.policy = policy;
+    this.sizeEstimator = sizeEstimator;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The value is only memoized if the policy deems it worth retaining.
+   * </p>
+   */
+  @Override
+  public T evaluateData() {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final long start = System.nanoTime();
+    final T value;
+    try {
+      value = this.supplier.get();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, AdaptiveMemoizable.class, this.supplier);
+    }
+    this.evaluationNanos += System.nanoTime() - start;
+    ++this.evaluations;
+
+    this.discard();
+    if (this.policy.isWorthRetaining(this.evaluationNanos / this.evaluations, this.reads)) {
+      final long size = this.sizeEstimator.applyAsLong(value);
+      if (this.reservation == null) {
+        this.reservation = this.policy.reservation(this);
+      }
+      if (this.reservation.reserve(size)) {
+        this.hasMemoized = true;
+        this.memoizedValue = value;
+        this.retainedBytes = size;
+      }
+    }
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public T memoized() {
+    if (this.hasMemoized) {
+      return this.memoizedValue;
+    }
+
+    ++this.reads;
+    return this.evaluateData();
+  }
+
+  /**
+   * Discard the memoized value, if any, and release its share of the policy's memory budget.
+   */
+  public void invalidate() {
+    if (this.discard()) {
+      MemoizationEvents.invalidated(AdaptiveMemoizable.class, null);
+    }
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.hasMemoized;
+  }
+
+  private boolean discard() {
+    if (!this.hasMemoized) {
+      return false;
+    }
+
+    this.reservation.release(this.retainedBytes);
+    this.hasMemoized = false;
+    this.memoizedValue = null;
+    this.retainedBytes = 0;
+    return true;
+  }
+}
@@ -0,0 +1,250 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe {@link KeyedMemoizable} which decides per key whether to retain values, like an
+ * {@link AdaptiveMemoizable}.
+ * <p>
+ * The statistics of keys are kept in a fixed-size, direct-mapped table, so keys which are read once take up no memory
+ * once their slot is taken by another key. The statistics are approximate: keys sharing a slot forget each other's
+ * statistics, and concurrent updates of a slot may lose one another. Each retained value is charged 48 bytes for its
+ * bookkeeping on top of its estimated size.
+ * </p>
+ * <p>
+ * Retained values keep their share of the policy's memory budget until they are invalidated, so once the budget is
+ * spent, keys not yet retained are evaluated on every read however hot they are.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the memoizable values.
+ */
+public final class AdaptiveMemoizableFunction<K, V> implements KeyedMemoizable<K, V> {
+  private static final long DEFAULT_SIZE_ESTIMATE = 64;
+  private static final int DEFAULT_TRACKED_KEYS = 1024;
+  private static final long ENTRY_OVERHEAD = 48;
+
+  private final @NonNull Function<? super K, ? extends V> function;
+  private final @NonNull AdaptivePolicy policy;
+  private final @NonNull ToLongFunction<? super V> sizeEstimator;
+  private final AdaptivePolicy.@NonNull Reservation reservation;
+  private final @NonNull ConcurrentHashMap<K, Retained<V>> retained = new ConcurrentHashMap<>();
+  private final @NonNull AtomicReferenceArray<Statistics> statistics;
+  private final @NonNull AtomicLong invalidations = new AtomicLong();
+  private final int mask;
+
+  /**
+   * Create an adaptive memoizable, estimating every value to take up 64 bytes.
+   *
+   * @param function the function to memoize.
+   * @param policy the policy deciding whether to retain values.
+   */
+  public AdaptiveMemoizableFunction(final @NonNull Function<? super K, ? extends V> function,
+      final @NonNull AdaptivePolicy policy) {
+    this(function, policy, value -> DEFAULT_SIZE_ESTIMATE);
+  }
+
+  /**
+   * Create an adaptive memoizable, keeping the statistics of up to 1024 keys.
+   *
+   * @param function the function to memoize.
+   * @param policy the policy deciding whether to retain values.
+   * @param sizeEstimator the estimator of the size in bytes of a value.
+   */
+  public AdaptiveMemoizableFunction(final @NonNull Function<? super K, ? extends V> function,
+      final @NonNull AdaptivePolicy policy, final @NonNull ToLongFunction<? super V> sizeEstimator) {
+    this(function, policy, sizeEstimator, DEFAULT_TRACKED_KEYS);
+  }
+
+  /**
+   * Create an adaptive memoizable.
+   *
+   * @param function the function to memoize.
+   * @param policy the policy deciding whether to retain values.
+   * @param sizeEstimator the estimator of the size in bytes of a value.
+   * @param trackedKeys the amount of keys to keep statistics of, rounded up to a power of two.
+   */
+  public AdaptiveMemoizableFunction(final @NonNull Function<? super K, ? extends V> function,
+      final @NonNull AdaptivePolicy policy, final @NonNull ToLongFunction<? super V> sizeEstimator,
+      final int trackedKeys) {
+    if (trackedKeys < 1) {
+      throw new IllegalArgumentException("trackedKeys must be positive: " + trackedKeys);
+    }
+
+    final int size = trackedKeys == 1 ? 1 : Integer.highestOneBit(trackedKeys - 1) << 1;
+    this.function = function;
+    this.policy = policy;
+    this.sizeEstimator = sizeEstimator;
+    this.reservation = policy.reservation(this);
+    this.statistics = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The value is only memoized if the policy deems it worth retaining.
+   * </p>
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    return this.evaluate(key, this.indexOf(key));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V memoized(final @NonNull K key) {
+    final Retained<V> current = this.retained.get(key);
+    if (current != null) {
+      return current.value;
+    }
+
+    final int index = this.indexOf(key);
+    this.statistics.set(index, this.statisticsOf(index, key).read());
+    return this.evaluate(key, index);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    return this.retained.containsKey(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This also discards the statistics of the key, and releases its share of the policy's memory budget.
+   * </p>
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    // Counted before discarding, so an evaluation racing this cannot retain its value afterwards.
+    this.invalidations.incrementAndGet();
+    final int index = this.indexOf(key);
+    final Statistics current = this.statistics.get(index);
+    if (current != null && current.key.equals(key)) {
+      this.statistics.compareAndSet(index, current, null);
+    }
+    if (this.discard(key)) {
+      MemoizationEvents.invalidated(AdaptiveMemoizableFunction.class, key);
+    }
+  }
+
+  private V evaluate(final @NonNull K key, final int index) {
+    final long invalidation = this.invalidations.get();
+    final Object event = MemoizationEvents.beginEvaluation();
+    final long start = System.nanoTime();
+    final V value;
+    try {
+      value = this.function.apply(key);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, AdaptiveMemoizableFunction.class, this.function, key);
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    final Statistics evaluated = this.statisticsOf(index, key).evaluated(elapsed);
+    this.statistics.set(index, evaluated);
+    if (!this.policy.isWorthRetaining(evaluated.evaluationNanos / evaluated.evaluations, evaluated.reads)) {
+      this.discard(key);
+      return value;
+    }
+
+    final long bytes = this.sizeEstimator.applyAsLong(value) + ENTRY_OVERHEAD;
+    if (!this.reservation.reserve(bytes)) {
+      this.discard(key);
+      return value;
+    }
+    final Retained<V> created = new Retained<>(value, bytes);
+    final Retained<V> previous = this.retained.put(key, created);
+    if (previous != null) {
+      this.reservation.release(previous.bytes);
+    }
+    if (this.invalidations.get() != invalidation && this.retained.remove(key, created)) {
+      this.reservation.release(bytes);
+    }
+    return value;
+  }
+
+  private boolean discard(final @NonNull K key) {
+    final Retained<V> previous = this.retained.remove(key);
+    if (previous == null) {
+      return false;
+    }
+
+    this.reservation.release(previous.bytes);
+    return true;
+  }
+
+  private @NonNull Statistics statisticsOf(final int index, final @NonNull K key) {
+    final Statistics current = this.statistics.get(index);
+    return current != null && current.key.equals(key) ? current : new Statistics(key, 0, 0, 0);
+  }
+
+  private int indexOf(final @NonNull Object key) {
+    final int hash = key.hashCode() * 0x9e3779b9;
+    return (hash ^ hash >>> 16) & this.mask;
+  }
+
+  private static final class Statistics {
+    private final @NonNull Object key;
+    private final long reads;
+    private final long evaluations;
+    private final long evaluationNanos;
+
+    private Statistics(final @NonNull Object key, final long reads, final long evaluations,
+        final long evaluationNanos) {
+      this.key = key;
+      this.reads = reads;
+      this.evaluations = evaluations;
+      this.evaluationNanos = evaluationNanos;
+    }
+
+    private @NonNull Statistics read() {
+      return new Statistics(this.key, this.reads + 1, this.evaluations, this.evaluationNanos);
+    }
+
+    private @NonNull Statistics evaluated(final long nanos) {
+      return new Statistics(this.key, this.reads, this.evaluations + 1, this.evaluationNanos + nanos);
+    }
+  }
+
+  private static final class Retained<V> {
+    private final V value;
+    private final long bytes;
+
+    private Retained(final V value, final long bytes) {
+      this.value = value;
+      this.bytes = bytes;
+    }
+  }
+}
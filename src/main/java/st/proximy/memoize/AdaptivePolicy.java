@@ -0,0 +1,158 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Decides whether memoizing a value pays off, for {@link AdaptiveMemoizable} and {@link AdaptiveMemoizableFunction}.
+ * <p>
+ * A value is retained once it is both expensive, costing at least {@link #minimumCost()} to evaluate on average, and
+ * reused, having been read at least {@link #minimumReads()} times. The total estimated size of the values retained by
+ * all memoizables sharing a policy never exceeds its {@link #memoryBudget()}; values which do not fit are evaluated
+ * on every read instead. Budget reserved by memoizables which are garbage collected is reclaimed.
+ * </p>
+ * <p>
+ * The budget is granted first come, first served: a retained value keeps its share until it is invalidated or its
+ * memoizable is garbage collected, and is never displaced by a value read more often. Once the budget is spent, no
+ * further value is retained, however hot. Use a {@link MemoBudget} where more valuable values should displace less
+ * valuable ones.
+ * </p>
+ */
+public final class AdaptivePolicy {
+  private final long minimumCostNanos;
+  private final long minimumReads;
+  private final long memoryBudget;
+  private final @NonNull AtomicLong retainedBytes = new AtomicLong();
+  private final @NonNull ReferenceQueue<Object> collected = new ReferenceQueue<>();
+  private final @NonNull Set<Reservation> reservations = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Create a policy.
+   *
+   * @param minimumCost the minimum average evaluation cost of a value to retain it.
+   * @param minimumReads the minimum amount of reads of a value to retain it.
+   * @param memoryBudget the maximum total estimated size in bytes of the retained values.
+   */
+  public AdaptivePolicy(final @NonNull Duration minimumCost, final long minimumReads, final long memoryBudget) {
+    if (minimumCost.isNegative() || minimumReads < 0 || memoryBudget < 0) {
+      throw new IllegalArgumentException("policy parameters must not be negative");
+    }
+
+    this.minimumCostNanos = minimumCost.toNanos();
+    this.minimumReads = minimumReads;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Get the minimum average evaluation cost of a value to retain it.
+   *
+   * @return the minimum cost.
+   */
+  public @NonNull Duration minimumCost() {
+    return Duration.ofNanos(this.minimumCostNanos);
+  }
+
+  /**
+   * Get the minimum amount of reads of a value to retain it.
+   *
+   * @return the minimum amount of reads.
+   */
+  public long minimumReads() {
+    return this.minimumReads;
+  }
+
+  /**
+   * Get the maximum total estimated size in bytes of the retained values.
+   *
+   * @return the memory budget.
+   */
+  public long memoryBudget() {
+    return this.memoryBudget;
+  }
+
+  /**
+   * Get the total estimated size in bytes of the currently retained values.
+   *
+   * @return the retained size.
+   */
+  public long retainedBytes() {
+    this.reclaim();
+    return this.retainedBytes.get();
+  }
+
+  boolean isWorthRetaining(final long meanCostNanos, final long reads) {
+    return meanCostNanos >= this.minimumCostNanos && reads >= this.minimumReads;
+  }
+
+  @NonNull Reservation reservation(final @NonNull Object owner) {
+    final Reservation reservation = new Reservation(this, owner);
+    this.reservations.add(reservation);
+    return reservation;
+  }
+
+  private void reclaim() {
+    Reference<?> reference;
+    while ((reference = this.collected.poll()) != null) {
+      final Reservation reservation = (Reservation) reference;
+      this.reservations.remove(reservation);
+      this.retainedBytes.addAndGet(-reservation.bytes.getAndSet(0));
+    }
+  }
+
+  /**
+   * The share of the budget reserved by a single owner, which is released when the owner is garbage collected.
+   */
+  static final class Reservation extends PhantomReference<Object> {
+    private final @NonNull AdaptivePolicy policy;
+    private final @NonNull AtomicLong bytes = new AtomicLong();
+
+    private Reservation(final @NonNull AdaptivePolicy policy, final @NonNull Object owner) {
+      super(owner, policy.collected);
+      this.policy = policy;
+    }
+
+    boolean reserve(final long amount) {
+      this.policy.reclaim();
+      final AtomicLong retained = this.policy.retainedBytes;
+      for (;;) {
+        final long current = retained.get();
+        if (amount > this.policy.memoryBudget - current) {
+          return false;
+        }
+        if (retained.compareAndSet(current, current + amount)) {
+          this.bytes.addAndGet(amount);
+          return true;
+        }
+      }
+    }
+
+    void release(final long amount) {
+      this.bytes.addAndGet(-amount);
+      this.policy.retainedBytes.addAndGet(-amount);
+    }
+  }
+}
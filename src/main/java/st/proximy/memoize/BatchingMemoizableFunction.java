@@ -0,0 +1,318 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe {@link KeyedMemoizable} which evaluates the values of many keys at once, through a bulk loader.
+ * <p>
+ * Keys which are not yet memoized are collected into a batch. The first thread adding a key to an empty batch waits
+ * for the batch window to pass, then hands the whole batch to the loader; a batch is handed over right away when it
+ * reaches the maximum batch size. Every thread asking for a key in the batch waits for the loader and receives its
+ * value, and threads asking for a key which is already being loaded join that load. Use
+ * {@link #memoizedAll(Collection)} to ask for many keys from a single thread.
+ * </p>
+ * <p>
+ * The loader must return a value for every key it is given. If it throws, or leaves out a key, the affected keys are
+ * not memoized and the exception is thrown to every thread asking for them, rather than to the thread which happened
+ * to dispatch the batch.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type to be memoized.
+ */
+public final class BatchingMemoizableFunction<K, V> implements KeyedMemoizable<K, V> {
+  private final @NonNull Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> loader;
+  private final int maximumBatchSize;
+  private final long windowNanos;
+  private final @NonNull ConcurrentMap<K, Flight.OfObject<V>> flights = new ConcurrentHashMap<>();
+  private final @NonNull ReentrantLock batchLock = new ReentrantLock();
+  private final @NonNull Condition dispatched = this.batchLock.newCondition();
+  private @NonNull List<Load<K, V>> batch = new ArrayList<>();
+  private long generation = 0;
+
+  /**
+   * Create a batching memoizable function.
+   *
+   * @param loader the function evaluating the values of a set of keys at once.
+   * @param maximumBatchSize the maximum amount of keys to hand to the loader at once.
+   * @param window the time to collect keys for a batch before handing it to the loader.
+   */
+  public BatchingMemoizableFunction(
+      final @NonNull Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> loader,
+      final int maximumBatchSize, final @NonNull Duration window) {
+    if (maximumBatchSize < 1) {
+      throw new IllegalArgumentException("maximumBatchSize must be positive: " + maximumBatchSize);
+    }
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("window must not be negative: " + window);
+    }
+
+    this.loader = loader;
+    this.maximumBatchSize = maximumBatchSize;
+    this.windowNanos = window.toNanos();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The key is evaluated as part of a batch.
+   * </p>
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    final Flight.OfObject<V> flight = new Flight.OfObject<>();
+    this.flights.put(key, flight);
+    this.lead(this.enqueue(key, flight));
+
+    flight.await(BatchingMemoizableFunction.class, key);
+    return flight.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V memoized(final @NonNull K key) {
+    Flight.OfObject<V> flight = this.flights.get(key);
+    if (flight == null) {
+      final Flight.OfObject<V> created = new Flight.OfObject<>();
+      flight = this.flights.putIfAbsent(key, created);
+      if (flight == null) {
+        flight = created;
+        this.lead(this.enqueue(key, created));
+      }
+    }
+
+    flight.await(BatchingMemoizableFunction.class, key);
+    return flight.value;
+  }
+
+  /**
+   * Get the memoized values for the given keys, evaluating every key not yet memoized in as few batches as possible.
+   *
+   * @param keys the keys to get the values of.
+   * @return the now memoized values, in the order of the keys.
+   */
+  public @NonNull Map<K, V> memoizedAll(final @NonNull Collection<? extends K> keys) {
+    final Map<K, Flight.OfObject<V>> awaited = new LinkedHashMap<>();
+    long leading = -1;
+    try {
+      for (final K key : keys) {
+        Flight.OfObject<V> flight = awaited.get(key);
+        if (flight == null) {
+          flight = this.flights.get(key);
+        }
+        if (flight == null) {
+          final Flight.OfObject<V> created = new Flight.OfObject<>();
+          flight = this.flights.putIfAbsent(key, created);
+          if (flight == null) {
+            flight = created;
+            final long generation = this.enqueue(key, created);
+            // Every earlier batch this thread started has been dispatched by now, as it was full.
+            if (generation >= 0) {
+              leading = generation;
+            }
+          }
+        }
+        awaited.put(key, flight);
+      }
+    } finally {
+      // A batch this thread started has no other leader, even if a later key is rejected.
+      this.lead(leading);
+    }
+
+    final Map<K, V> values = new LinkedHashMap<>();
+    for (final Map.Entry<K, Flight.OfObject<V>> entry : awaited.entrySet()) {
+      entry.getValue().await(BatchingMemoizableFunction.class, entry.getKey());
+      values.put(entry.getKey(), entry.getValue().value);
+    }
+    return values;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    final Flight flight = this.flights.get(key);
+    return flight != null && flight.hasSucceeded();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Threads already waiting for a batch containing the key still receive its value.
+   * </p>
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    if (this.flights.remove(key) != null) {
+      MemoizationEvents.invalidated(BatchingMemoizableFunction.class, key);
+    }
+  }
+
+  /**
+   * Add a key to the current batch, dispatching the batch if it is full.
+   *
+   * @return the generation of the batch if the calling thread started it, otherwise {@code -1}.
+   */
+  private long enqueue(final @NonNull K key, final Flight.@NonNull OfObject<V> flight) {
+    final List<Load<K, V>> full;
+    this.batchLock.lock();
+    try {
+      this.batch.add(new Load<>(key, flight));
+      if (this.batch.size() < this.maximumBatchSize) {
+        return this.batch.size() == 1 ? this.generation : -1;
+      }
+
+      full = this.takeBatch();
+    } finally {
+      this.batchLock.unlock();
+    }
+
+    this.dispatch(full);
+    return -1;
+  }
+
+  /**
+   * Wait for the window of a batch the calling thread started, then dispatch it unless it is already dispatched.
+   *
+   * @param generation the generation of the batch, or {@code -1} to do nothing.
+   */
+  private void lead(final long generation) {
+    if (generation < 0) {
+      return;
+    }
+
+    final List<Load<K, V>> window;
+    boolean interrupted = false;
+    this.batchLock.lock();
+    try {
+      final long deadline = System.nanoTime() + this.windowNanos;
+      long remaining = this.windowNanos;
+      while (this.generation == generation && remaining > 0) {
+        try {
+          this.dispatched.await(remaining, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException ex) {
+          interrupted = true;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      if (this.generation != generation) {
+        return;
+      }
+
+      window = this.takeBatch();
+    } finally {
+      this.batchLock.unlock();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    this.dispatch(window);
+  }
+
+  private @NonNull List<Load<K, V>> takeBatch() {
+    final List<Load<K, V>> taken = this.batch;
+    this.batch = new ArrayList<>();
+    ++this.generation;
+    this.dispatched.signalAll();
+    return taken;
+  }
+
+  private void dispatch(final @NonNull List<Load<K, V>> loads) {
+    final Set<K> keys = new LinkedHashSet<>();
+    for (final Load<K, V> load : loads) {
+      keys.add(load.key);
+    }
+
+    final Object event = MemoizationEvents.beginEvaluation();
+    final Map<? extends K, ? extends V> values;
+    try {
+      values = this.loader.apply(Collections.unmodifiableSet(keys));
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      this.failAll(loads, ex);
+      return;
+    } finally {
+      MemoizationEvents.endEvaluation(event, BatchingMemoizableFunction.class, this.loader, keys);
+    }
+    if (values == null) {
+      this.failAll(loads, new IllegalStateException("The loader returned no values for keys " + keys));
+      return;
+    }
+
+    try {
+      for (final Load<K, V> load : loads) {
+        if (values.containsKey(load.key)) {
+          load.flight.value = values.get(load.key);
+          load.flight.succeed();
+        } else {
+          this.fail(load, new IllegalStateException("The loader returned no value for key " + load.key));
+        }
+      }
+    } catch (final Throwable ex) {
+      this.failAll(loads, ex);
+    }
+  }
+
+  /**
+   * Fail every load not yet completed.
+   */
+  private void failAll(final @NonNull List<Load<K, V>> loads, final @NonNull Throwable failure) {
+    for (final Load<K, V> load : loads) {
+      if (!load.flight.isReleasable()) {
+        this.fail(load, failure);
+      }
+    }
+  }
+
+  private void fail(final @NonNull Load<K, V> load, final @NonNull Throwable failure) {
+    this.flights.remove(load.key, load.flight);
+    load.flight.fail(failure);
+  }
+
+  private static final class Load<K, V> {
+    private final @NonNull K key;
+    private final Flight.@NonNull OfObject<V> flight;
+
+    private Load(final @NonNull K key, final Flight.@NonNull OfObject<V> flight) {
+      this.key = key;
+      this.flight = flight;
+    }
+  }
+}
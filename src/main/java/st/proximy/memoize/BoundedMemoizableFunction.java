@@ -0,0 +1,224 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe {@link KeyedMemoizable} which discards values according to an {@link EvictionPolicy} once the total
+ * weight of its values exceeds a maximum.
+ * <p>
+ * A discarded value is not distinguishable from one never evaluated: the next {@link #memoized(Object)} for its key
+ * evaluates it anew. Reads of memoized values take no lock; they are recorded in a lossy buffer which is replayed to
+ * the policy in batches.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the memoizable values.
+ */
+public final class BoundedMemoizableFunction<K, V> implements KeyedMemoizable<K, V> {
+  private final @NonNull Function<? super K, ? extends V> function;
+  private final long maximumWeight;
+  private final @NonNull Weigher<? super K, ? super V> weigher;
+  private final @NonNull EvictionPolicy<K> policy;
+  private final @NonNull ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final @NonNull ReadBuffer<K> readBuffer = new ReadBuffer<>();
+  private final @NonNull ReentrantLock evictionLock = new ReentrantLock();
+  private long weightedSize = 0;
+
+  /**
+   * Create a memoizable holding at most {@code maximumSize} values, discarding them as per
+   * {@link EvictionPolicy#windowTinyLfu(int) W-TinyLFU}.
+   *
+   * @param function the function to memoize.
+   * @param maximumSize the maximum amount of values.
+   */
+  public BoundedMemoizableFunction(final @NonNull Function<? super K, ? extends V> function, final long maximumSize) {
+    this(function, maximumSize, Weigher.singleton(),
+        EvictionPolicy.windowTinyLfu((int) Math.min(maximumSize, Integer.MAX_VALUE)));
+  }
+
+  /**
+   * Create a memoizable holding values of at most {@code maximumWeight} total weight.
+   *
+   * @param function the function to memoize.
+   * @param maximumWeight the maximum total weight of the values.
+   * @param weigher the weigher of the values.
+   * @param policy the policy deciding which values to discard. This must not be shared with other memoizables.
+   */
+  public BoundedMemoizableFunction(final @NonNull Function<? super K, ? extends V> function, final long maximumWeight,
+      final @NonNull Weigher<? super K, ? super V> weigher, final @NonNull EvictionPolicy<K> policy) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+    }
+
+    this.function = function;
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    this.policy = policy;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final V value;
+    try {
+      value = this.function.apply(key);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, BoundedMemoizableFunction.class, this.function, key);
+    }
+    final long weight = this.weigher.weigh(key, value);
+    if (weight < 0) {
+      throw new IllegalStateException("weigher returned a negative weight: " + weight);
+    }
+
+    this.lockEviction(key);
+    try {
+      this.drainReadBuffer();
+      final Entry<V> previous = this.entries.put(key, new Entry<>(value, weight));
+      if (previous == null) {
+        this.policy.recordInsertion(key);
+      } else {
+        this.weightedSize -= previous.weight;
+        this.policy.recordAccess(key);
+      }
+      this.weightedSize += weight;
+      this.evict();
+    } finally {
+      this.evictionLock.unlock();
+    }
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V memoized(final @NonNull K key) {
+    final Entry<V> entry = this.entries.get(key);
+    if (entry == null) {
+      return this.evaluateData(key);
+    }
+
+    if (this.readBuffer.offer(key) && this.evictionLock.tryLock()) {
+      try {
+        this.drainReadBuffer();
+      } finally {
+        this.evictionLock.unlock();
+      }
+    }
+    return entry.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    return this.entries.containsKey(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    this.lockEviction(key);
+    try {
+      this.drainReadBuffer();
+      final Entry<V> entry = this.entries.remove(key);
+      if (entry != null) {
+        this.weightedSize -= entry.weight;
+        this.policy.recordRemoval(key);
+        MemoizationEvents.invalidated(BoundedMemoizableFunction.class, key);
+      }
+    } finally {
+      this.evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Get the amount of currently memoized values.
+   *
+   * @return the amount of values.
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Get the total weight of the currently memoized values.
+   *
+   * @return the total weight.
+   */
+  public long weightedSize() {
+    this.evictionLock.lock();
+    try {
+      return this.weightedSize;
+    } finally {
+      this.evictionLock.unlock();
+    }
+  }
+
+  private void lockEviction(final @NonNull K key) {
+    if (!this.evictionLock.tryLock()) {
+      final Object event = MemoizationEvents.beginContention();
+      this.evictionLock.lock();
+      MemoizationEvents.endContention(event, BoundedMemoizableFunction.class, key);
+    }
+  }
+
+  private void drainReadBuffer() {
+    this.readBuffer.drainTo(this.policy::recordAccess);
+  }
+
+  private void evict() {
+    while (this.weightedSize > this.maximumWeight) {
+      final K victim = this.policy.selectVictim();
+      if (victim == null) {
+        return;
+      }
+
+      final Entry<V> entry = this.entries.remove(victim);
+      this.policy.recordRemoval(victim);
+      if (entry != null) {
+        this.weightedSize -= entry.weight;
+      }
+    }
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long weight;
+
+    private Entry(final V value, final long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.common.returnsreceiver.qual.This;
+
+/**
+ * A thread-safe {@link Memoizable} whose value is charged to a shared {@link MemoBudget}, which may discard it when
+ * other values are more valuable. A discarded value is evaluated anew on the next read.
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class BudgetedMemoizable<T> implements Memoizable<T> {
+  private final @NonNull Supplier<T> supplier;
+  private final @NonNull ToLongFunction<? super T> sizeEstimator;
+  private final @NonNull MemoBudget budget;
+  private final MemoBudget.@NonNull Entry entry;
+
+  /**
+   * Create a budgeted memoizable.
+   *
+   * @param budget the budget to charge the value to.
+   * @param supplier the supplier of the value.
+   * @param sizeEstimator the estimator of the size in bytes of a value.
+   */
+  public BudgetedMemoizable(final @NonNull MemoBudget budget, final @NonNull Supplier<T> supplier,
+      final @NonNull ToLongFunction<? super T> sizeEstimator) {
+    this.supplier = supplier;
+    this.sizeEstimator = sizeEstimator;
+    this.budget = budget;
+    this.entry = budget.register(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The value is not memoized if its estimated size exceeds the whole budget.
+   * </p>
+   */
+  @Override
+  public T evaluateData() {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final long start = System.nanoTime();
+    final T value;
+    try {
+      value = this.supplier.get();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, BudgetedMemoizable.class, this.supplier);
+    }
+    final long costNanos = System.nanoTime() - start;
+
+    this.budget.charge(this.entry, value, this.sizeEstimator.applyAsLong(value), costNanos);
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T memoized() {
+    final Object value = this.entry.read();
+    if (value == MemoBudget.Entry.UNSET) {
+      return this.evaluateData();
+    }
+
+    return (T) value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This BudgetedMemoizable<T> eager() {
+    this.evaluateData();
+    return this;
+  }
+
+  /**
+   * Discard the memoized value, if any, and release its share of the budget.
+   */
+  public void invalidate() {
+    if (this.budget.discard(this.entry)) {
+      MemoizationEvents.invalidated(BudgetedMemoizable.class, null);
+    }
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.entry.hasValue();
+  }
+}
@@ -0,0 +1,121 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A thread-safe, memoized constructor, returning the same instance for all {@link Object#equals(Object) equal} inputs.
+ * <p>
+ * Instances are only weakly referenced, so those no longer used elsewhere may be garbage collected, after which an
+ * equal input constructs a new instance. An input is retained for as long as its instance is.
+ * </p>
+ *
+ * @param <K> the type of the inputs.
+ * @param <T> the type of the instances.
+ * @see Interner
+ * @see LongCanonicalFactory
+ */
+public final class CanonicalFactory<K, T> implements Function<K, T> {
+  private final @NonNull Function<? super K, ? extends @NonNull T> constructor;
+  private final @NonNull ConcurrentHashMap<K, WeakValue<K, T>> instances = new ConcurrentHashMap<>();
+  private final @NonNull ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+  public CanonicalFactory(final @NonNull Function<? super K, ? extends @NonNull T> constructor) {
+    this.constructor = constructor;
+  }
+
+  /**
+   * Returns the canonical instance for the given input, like {@link #canonical(Object)}.
+   */
+  @Override
+  public @NonNull T apply(final @NonNull K input) {
+    return this.canonical(input);
+  }
+
+  /**
+   * Get the canonical instance for the given input, constructing it if there is none.
+   * <p>
+   * The constructor is called without holding any lock, so it may itself get canonical instances from this factory.
+   * Threads racing for the same input may each construct an instance, but only one of them becomes canonical.
+   * </p>
+   *
+   * @param input the input of the constructor.
+   * @return the canonical instance.
+   */
+  public @NonNull T canonical(final @NonNull K input) {
+    this.expunge();
+    WeakValue<K, T> existing = this.instances.get(input);
+    for (;;) {
+      if (existing != null) {
+        final T instance = existing.get();
+        if (instance != null) {
+          return instance;
+        }
+      }
+
+      final T created = this.constructor.apply(input);
+      final WeakValue<K, T> value = new WeakValue<>(input, created, this.collected);
+      if (existing == null) {
+        existing = this.instances.putIfAbsent(input, value);
+        if (existing == null) {
+          return created;
+        }
+      } else if (this.instances.replace(input, existing, value)) {
+        return created;
+      } else {
+        existing = this.instances.get(input);
+      }
+    }
+  }
+
+  /**
+   * Get the amount of canonical instances. This may include instances which were garbage collected recently.
+   *
+   * @return the amount of canonical instances.
+   */
+  public int size() {
+    this.expunge();
+    return this.instances.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void expunge() {
+    Reference<? extends T> reference;
+    while ((reference = this.collected.poll()) != null) {
+      final WeakValue<K, T> value = (WeakValue<K, T>) reference;
+      this.instances.remove(value.key, value);
+    }
+  }
+
+  private static final class WeakValue<K, T> extends WeakReference<T> {
+    private final @NonNull K key;
+
+    private WeakValue(final @NonNull K key, final @NonNull T value, final @NonNull ReferenceQueue<T> queue) {
+      super(value, queue);
+      this.key = key;
+    }
+  }
+}
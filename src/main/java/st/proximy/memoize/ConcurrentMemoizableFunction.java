@@ -0,0 +1,127 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe {@link Function} which memoizes its result per argument, evaluating each argument only once even
+ * when many threads ask for it at the same time.
+ * <p>
+ * Threads asking for an argument which is being evaluated wait for that evaluation rather than duplicating it. This
+ * makes it suited to {@link java.util.stream.Stream#map(Function) mapping} parallel streams with repeated elements;
+ * see also {@link MemoizableCollectors}. A failed evaluation is not memoized: its exception is thrown to every waiting
+ * thread, and the next thread asking evaluates the argument anew. Memoized results are never discarded unless
+ * {@link #invalidate(Object) invalidated}, so a function should be created per job rather than kept forever.
+ * </p>
+ *
+ * @param <K> the type of the argument.
+ * @param <V> the type of the result.
+ */
+public final class ConcurrentMemoizableFunction<K, V> implements Function<K, V>, KeyedMemoizable<K, V> {
+  private final @NonNull Function<? super K, ? extends V> function;
+  private final @NonNull ConcurrentMap<K, Flight.OfObject<V>> flights = new ConcurrentHashMap<>();
+
+  public ConcurrentMemoizableFunction(final @NonNull Function<? super K, ? extends V> function) {
+    this.function = function;
+  }
+
+  /**
+   * Returns the memoized result for the given argument, like {@link #memoized(Object)}.
+   */
+  @Override
+  public V apply(final @NonNull K key) {
+    return this.memoized(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Threads asking for the argument meanwhile wait for this evaluation.
+   * </p>
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    final Flight.OfObject<V> flight = new Flight.OfObject<>();
+    this.flights.put(key, flight);
+    return this.evaluate(key, flight);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V memoized(final @NonNull K key) {
+    Flight.OfObject<V> flight = this.flights.get(key);
+    if (flight == null) {
+      final Flight.OfObject<V> created = new Flight.OfObject<>();
+      flight = this.flights.putIfAbsent(key, created);
+      if (flight == null) {
+        return this.evaluate(key, created);
+      }
+    }
+
+    flight.await(ConcurrentMemoizableFunction.class, key);
+    return flight.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    final Flight flight = this.flights.get(key);
+    return flight != null && flight.hasSucceeded();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Threads already waiting for an evaluation of the argument still receive its result.
+   * </p>
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    if (this.flights.remove(key) != null) {
+      MemoizationEvents.invalidated(ConcurrentMemoizableFunction.class, key);
+    }
+  }
+
+  private V evaluate(final @NonNull K key, final Flight.@NonNull OfObject<V> flight) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final V value;
+    try {
+      value = this.function.apply(key);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      this.flights.remove(key, flight);
+      flight.fail(ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, ConcurrentMemoizableFunction.class, this.function, key);
+    }
+
+    flight.value = value;
+    flight.succeed();
+    return value;
+  }
+}
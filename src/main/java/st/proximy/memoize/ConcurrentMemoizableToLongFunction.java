@@ -0,0 +1,145 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe {@link ToLongFunction} which memoizes its result per argument without boxing it, evaluating each
+ * argument only once even when many threads ask for it at the same time.
+ * <p>
+ * This is the {@code long} specialization of {@link ConcurrentMemoizableFunction}, for mapping parallel streams
+ * with {@link java.util.stream.Stream#mapToLong(ToLongFunction)}. See that class for more detail.
+ * </p>
+ *
+ * @param <K> the type of the argument.
+ */
+public final class ConcurrentMemoizableToLongFunction<K>
+    implements ToLongFunction<K>, KeyedMemoizable<K, @NonNull Long> {
+  private final @NonNull ToLongFunction<? super K> function;
+  private final @NonNull ConcurrentMap<K, Flight.OfLong> flights = new ConcurrentHashMap<>();
+
+  public ConcurrentMemoizableToLongFunction(final @NonNull ToLongFunction<? super K> function) {
+    this.function = function;
+  }
+
+  /**
+   * Returns the memoized result for the given argument, like {@link #memoizedAsLong(Object)}.
+   */
+  @Override
+  public long applyAsLong(final @NonNull K key) {
+    return this.memoizedAsLong(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see #evaluateDataAsLong(Object)
+   */
+  @Override
+  public @NonNull Long evaluateData(final @NonNull K key) {
+    return this.evaluateDataAsLong(key);
+  }
+
+  /**
+   * Evaluates the data like {@link #evaluateData(Object)}, except with a primitive. See that method for more detail.
+   *
+   * @param key the key to evaluate the value of.
+   * @return the now memoized value.
+   * @see #evaluateData(Object)
+   */
+  public long evaluateDataAsLong(final @NonNull K key) {
+    final Flight.OfLong flight = new Flight.OfLong();
+    this.flights.put(key, flight);
+    return this.evaluate(key, flight);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see #memoizedAsLong(Object)
+   */
+  @Override
+  public @NonNull Long memoized(final @NonNull K key) {
+    return this.memoizedAsLong(key);
+  }
+
+  /**
+   * Returns the memoized value, or evaluates one then returns it if there is none currently memoized, just like in
+   * {@link #memoized(Object)} except with a primitive. See {@link #memoized(Object)} for more detail.
+   *
+   * @param key the key to get the value of.
+   * @return the now memoized value.
+   * @see #memoized(Object)
+   */
+  public long memoizedAsLong(final @NonNull K key) {
+    Flight.OfLong flight = this.flights.get(key);
+    if (flight == null) {
+      final Flight.OfLong created = new Flight.OfLong();
+      flight = this.flights.putIfAbsent(key, created);
+      if (flight == null) {
+        return this.evaluate(key, created);
+      }
+    }
+
+    flight.await(ConcurrentMemoizableToLongFunction.class, key);
+    return flight.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    final Flight flight = this.flights.get(key);
+    return flight != null && flight.hasSucceeded();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    if (this.flights.remove(key) != null) {
+      MemoizationEvents.invalidated(ConcurrentMemoizableToLongFunction.class, key);
+    }
+  }
+
+  private long evaluate(final @NonNull K key, final Flight.@NonNull OfLong flight) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final long value;
+    try {
+      value = this.function.applyAsLong(key);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      this.flights.remove(key, flight);
+      flight.fail(ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, ConcurrentMemoizableToLongFunction.class, this.function, key);
+    }
+
+    flight.value = value;
+    flight.succeed();
+    return value;
+  }
+}
@@ -0,0 +1,84 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Decides which memoized values to discard when a {@link BoundedMemoizableFunction} exceeds its bound.
+ * <p>
+ * A policy is only ever used by a single memoizable, and all of its methods are called while that memoizable holds its
+ * eviction lock. Implementations therefore need not be thread-safe.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ */
+public interface EvictionPolicy<K> {
+  /**
+   * Create a policy which discards the least recently used value first.
+   *
+   * @param <K> the type of the keys.
+   * @return a new least-recently-used policy.
+   */
+  static <K> @NonNull EvictionPolicy<K> lru() {
+    return new LruPolicy<>();
+  }
+
+  /**
+   * Create a frequency-aware policy, which admits values into a small recency window and only lets them replace older
+   * values when they have been used more often, as per W-TinyLFU.
+   *
+   * @param expectedSize the expected maximum amount of entries, used to size the frequency sketch.
+   * @param <K> the type of the keys.
+   * @return a new W-TinyLFU policy.
+   */
+  static <K> @NonNull EvictionPolicy<K> windowTinyLfu(final int expectedSize) {
+    return new WindowTinyLfuPolicy<>(expectedSize);
+  }
+
+  /**
+   * Record that the value for the given key was read or replaced. The key may no longer be present.
+   *
+   * @param key the key of the value.
+   */
+  void recordAccess(@NonNull K key);
+
+  /**
+   * Record that a value for the given key was newly memoized.
+   *
+   * @param key the key of the value.
+   */
+  void recordInsertion(@NonNull K key);
+
+  /**
+   * Record that the value for the given key was discarded.
+   *
+   * @param key the key of the value.
+   */
+  void recordRemoval(@NonNull K key);
+
+  /**
+   * Select the key whose value should be discarded next. The key is not discarded until
+   * {@link #recordRemoval(Object)} is called with it.
+   *
+   * @return the key to discard, or {@code null} if there are none.
+   */
+  @Nullable K selectVictim();
+}
@@ -0,0 +1,204 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.returnsreceiver.qual.This;
+
+/**
+ * A thread-safe {@link Memoizable} of the parsed contents of a file, which is parsed anew only when the file changes.
+ * <p>
+ * The file is read through a memory-mapped buffer, which the parser must not retain. By default, every read of the
+ * memoized value compares the modification time and size of the file with those when it was last parsed. When
+ * registered with an open {@link FileWatcher}, reads instead only check whether the watcher has seen the file change.
+ * </p>
+ *
+ * @param <T> the type of the parsed contents.
+ */
+public final class FileMemoizable<T> implements Memoizable<T> {
+  private final @NonNull Path path;
+  private final @NonNull Function<? super ByteBuffer, ? extends T> parser;
+  private final @Nullable FileWatcher watcher;
+  private volatile @Nullable Snapshot<T> snapshot;
+  private volatile boolean stale = true;
+
+  /**
+   * Create a memoizable revalidating the file's modification time and size on every read.
+   *
+   * @param path the path of the file.
+   * @param parser the parser of the file's contents.
+   */
+  public FileMemoizable(final @NonNull Path path, final @NonNull Function<? super ByteBuffer, ? extends T> parser) {
+    this.path = path;
+    this.parser = parser;
+    this.watcher = null;
+  }
+
+  /**
+   * Create a memoizable revalidated by a watcher.
+   *
+   * @param path the path of the file.
+   * @param parser the parser of the file's contents.
+   * @param watcher the watcher notifying this of changes to the file.
+   * @throws UncheckedIOException if the file's directory cannot be watched.
+   */
+  public FileMemoizable(final @NonNull Path path, final @NonNull Function<? super ByteBuffer, ? extends T> parser,
+      final @NonNull FileWatcher watcher) {
+    this.path = path;
+    this.parser = parser;
+    this.watcher = watcher;
+    watcher.register(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the file cannot be read.
+   */
+  @Override
+  public synchronized T evaluateData() {
+    this.stale = false;
+    try {
+      final BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+      final Object event = MemoizationEvents.beginEvaluation();
+      final T value;
+      try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+        value = this.parser.apply(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      } catch (final Throwable ex) {
+        MemoizationEvents.failEvaluation(event, ex);
+        throw ex;
+      } finally {
+        MemoizationEvents.endEvaluation(event, FileMemoizable.class, this.parser, this.path);
+      }
+
+      this.snapshot = new Snapshot<>(value, attributes.lastModifiedTime(), attributes.size());
+      return value;
+    } catch (final IOException ex) {
+      this.stale = true;
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the file cannot be read.
+   */
+  @Override
+  public T memoized() {
+    final Snapshot<T> current = this.snapshot;
+    if (current == null || this.hasChanged(current)) {
+      return this.memoizeChanged();
+    }
+
+    return current.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This FileMemoizable<T> eager() {
+    this.evaluateData();
+    return this;
+  }
+
+  /**
+   * Get the path of the file.
+   *
+   * @return the path of the file.
+   */
+  public @NonNull Path path() {
+    return this.path;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.snapshot != null;
+  }
+
+  /**
+   * Mark the memoized value as outdated, so the next read parses the file anew.
+   */
+  void invalidate() {
+    this.stale = true;
+    MemoizationEvents.invalidated(FileMemoizable.class, this.path);
+  }
+
+  private synchronized T memoizeChanged() {
+    // Another reader may have parsed the file anew while this waited for the lock.
+    final Snapshot<T> current = this.snapshot;
+    if (current == null) {
+      return this.evaluateData();
+    }
+    if (!this.hasChanged(current)) {
+      return current.value;
+    }
+
+    if (!this.isWatched()) {
+      MemoizationEvents.invalidated(FileMemoizable.class, this.path);
+    }
+    return this.evaluateData();
+  }
+
+  private boolean isWatched() {
+    final FileWatcher currentWatcher = this.watcher;
+    return currentWatcher != null && currentWatcher.isOpen();
+  }
+
+  private boolean hasChanged(final @NonNull Snapshot<T> current) {
+    if (this.isWatched()) {
+      return this.stale;
+    }
+
+    try {
+      final BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+      return !attributes.lastModifiedTime().equals(current.lastModified) || attributes.size() != current.size;
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static final class Snapshot<T> {
+    private final T value;
+    private final @NonNull FileTime lastModified;
+    private final long size;
+
+    private Snapshot(final T value, final @NonNull FileTime lastModified, final long size) {
+      this.value = value;
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+  }
+}
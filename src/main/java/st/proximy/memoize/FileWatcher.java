@@ -0,0 +1,143 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A shared {@link WatchService} notifying {@link FileMemoizable}s of changes to their files, so they need not check
+ * the file on every read.
+ * <p>
+ * Changes are processed on a daemon thread. Memoizables are only weakly referenced, and need not be unregistered.
+ * </p>
+ */
+public final class FileWatcher implements Closeable {
+  private final @NonNull WatchService watchService;
+  private final @NonNull Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+  private final @NonNull Map<Path, Queue<WeakReference<FileMemoizable<?>>>> watchers = new ConcurrentHashMap<>();
+  private volatile boolean closed = false;
+
+  /**
+   * Create a watcher of the default file system.
+   *
+   * @throws UncheckedIOException if the watch service cannot be created.
+   */
+  public FileWatcher() {
+    try {
+      this.watchService = FileSystems.getDefault().newWatchService();
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+
+    final Thread thread = new Thread(this::processEvents, "memoize-file-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stop watching all files. Registered memoizables fall back to checking their file on every read.
+   *
+   * @throws IOException if the watch service cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+    this.watchService.close();
+  }
+
+  /**
+   * Get whether this watcher is still watching files.
+   *
+   * @return whether this is open.
+   */
+  public boolean isOpen() {
+    return !this.closed;
+  }
+
+  void register(final @NonNull FileMemoizable<?> memoizable) {
+    final Path file = memoizable.path().toAbsolutePath().normalize();
+    final Path directory = file.getParent();
+    this.directories.computeIfAbsent(directory, dir -> {
+      try {
+        return dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+      } catch (final IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+    this.watchers.computeIfAbsent(file, path -> new ConcurrentLinkedQueue<>()).add(new WeakReference<>(memoizable));
+  }
+
+  private void processEvents() {
+    for (;;) {
+      final WatchKey key;
+      try {
+        key = this.watchService.take();
+      } catch (final InterruptedException | ClosedWatchServiceException ex) {
+        return;
+      }
+
+      final Path directory = (Path) key.watchable();
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          this.watchers.forEach((file, memoizables) -> {
+            if (directory.equals(file.getParent())) {
+              invalidateAll(memoizables);
+            }
+          });
+          continue;
+        }
+
+        final Path file = directory.resolve((Path) event.context());
+        final Queue<WeakReference<FileMemoizable<?>>> memoizables = this.watchers.get(file);
+        if (memoizables != null) {
+          invalidateAll(memoizables);
+        }
+      }
+      key.reset();
+    }
+  }
+
+  private static void invalidateAll(final @NonNull Queue<WeakReference<FileMemoizable<?>>> memoizables) {
+    memoizables.removeIf(reference -> {
+      final FileMemoizable<?> memoizable = reference.get();
+      if (memoizable == null) {
+        return true;
+      }
+
+      memoizable.invalidate();
+      return false;
+    });
+  }
+}
@@ -0,0 +1,47 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.time.Duration;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link HedgingPolicy} which always hedges after the same delay.
+ */
+final class FixedHedgingPolicy implements HedgingPolicy {
+  private final long delayNanos;
+
+  FixedHedgingPolicy(final @NonNull Duration delay) {
+    if (delay.isNegative()) {
+      throw new IllegalArgumentException("delay must not be negative: " + delay);
+    }
+
+    this.delayNanos = delay.toNanos();
+  }
+
+  @Override
+  public long hedgeDelayNanos() {
+    return this.delayNanos;
+  }
+
+  @Override
+  public void recordLatency(final long nanos) {
+    // The delay does not adapt.
+  }
+}
@@ -0,0 +1,121 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.ForkJoinPool;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A single evaluation of a value, which any amount of threads may wait for.
+ * <p>
+ * Waiting is done through {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}, so a pool whose workers
+ * wait for each other's evaluations, such as the common pool of parallel streams, compensates with another worker
+ * rather than stalling. The value is held by the subclasses in a field of its primitive type, and written before
+ * completing the flight.
+ * </p>
+ */
+abstract class Flight implements ForkJoinPool.ManagedBlocker {
+  private static final int PENDING = 0;
+  private static final int SUCCEEDED = 1;
+  private static final int FAILED = 2;
+
+  private volatile int state = PENDING;
+  private @Nullable Throwable failure;
+
+  final synchronized void succeed() {
+    this.state = SUCCEEDED;
+    this.notifyAll();
+  }
+
+  final synchronized void fail(final Throwable failure) {
+    this.failure = failure;
+    this.state = FAILED;
+    this.notifyAll();
+  }
+
+  final boolean hasSucceeded() {
+    return this.state == SUCCEEDED;
+  }
+
+  /**
+   * Wait for the flight to complete, rethrowing the failure of its evaluation, if any. A checked exception thrown
+   * without being declared is wrapped in an {@link IllegalStateException}.
+   *
+   * @param memoizableType the type of the memoizable waited on.
+   * @param label the key of the value.
+   */
+  final void await(final Class<?> memoizableType, final Object label) {
+    if (this.state == PENDING) {
+      final Object event = MemoizationEvents.beginContention();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          ForkJoinPool.managedBlock(this);
+          break;
+        } catch (final InterruptedException ex) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      MemoizationEvents.endContention(event, memoizableType, label);
+    }
+
+    if (this.state == FAILED) {
+      final Throwable failure = this.failure;
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      throw new IllegalStateException(failure);
+    }
+  }
+
+  @Override
+  public final boolean isReleasable() {
+    return this.state != PENDING;
+  }
+
+  @Override
+  public final synchronized boolean block() throws InterruptedException {
+    while (this.state == PENDING) {
+      this.wait();
+    }
+    return true;
+  }
+
+  static final class OfObject<V> extends Flight {
+    V value;
+  }
+
+  static final class OfInt extends Flight {
+    int value;
+  }
+
+  static final class OfLong extends Flight {
+    long value;
+  }
+
+  static final class OfDouble extends Flight {
+    double value;
+  }
+}
@@ -0,0 +1,94 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A count-min sketch estimating how often keys were used, with saturating counters that are halved periodically so
+ * the estimate favours recent use.
+ * <p>
+ * The counters are four bits wide and packed sixteen to a {@code long}, so there are sixteen counters per expected
+ * key. Each key is counted in four of them, and the counters are halved after ten increments per expected key; this
+ * keeps most counters well below saturation, so an increment nearly always counts towards the next halving.
+ * </p>
+ */
+final class FrequencySketch {
+  private static final int MAXIMUM_FREQUENCY = 15;
+  private static final long HALVING_MASK = 0x7777_7777_7777_7777L;
+  private static final int[] SEEDS = {0x97cb3127, 0x9e3779b9, 0x7f4a7c15, 0x85ebca6b};
+
+  private final long @NonNull [] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions = 0;
+
+  FrequencySketch(final int expectedSize) {
+    final int capacity = Integer.highestOneBit(Math.max(16, Math.min(expectedSize, 1 << 24)) - 1) << 1;
+    this.table = new long[capacity];
+    this.mask = (capacity << 4) - 1;
+    this.sampleSize = 10 * capacity;
+  }
+
+  int frequency(final @NonNull Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAXIMUM_FREQUENCY;
+    for (final int seed : SEEDS) {
+      frequency = Math.min(frequency, this.counter(this.indexOf(hash, seed)));
+    }
+    return frequency;
+  }
+
+  void increment(final @NonNull Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (final int seed : SEEDS) {
+      final int index = this.indexOf(hash, seed);
+      if (this.counter(index) < MAXIMUM_FREQUENCY) {
+        this.table[index >>> 4] += 1L << ((index & 15) << 2);
+        added = true;
+      }
+    }
+
+    if (added && ++this.additions == this.sampleSize) {
+      this.reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < this.table.length; ++i) {
+      this.table[i] = this.table[i] >>> 1 & HALVING_MASK;
+    }
+    this.additions >>>= 1;
+  }
+
+  private int counter(final int index) {
+    return (int) (this.table[index >>> 4] >>> ((index & 15) << 2)) & MAXIMUM_FREQUENCY;
+  }
+
+  private int indexOf(final int hash, final int seed) {
+    final int index = (hash ^ seed) * seed;
+    return (index ^ index >>> 16) & this.mask;
+  }
+
+  private static int spread(final int hash) {
+    final int spread = hash * 0x45d9f3b;
+    return spread ^ spread >>> 16;
+  }
+}
@@ -0,0 +1,285 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.returnsreceiver.qual.This;
+
+/**
+ * A thread-safe {@link Memoizable} which hedges slow evaluations, for suppliers with an occasional long tail of
+ * latency, such as remote lookups.
+ * <p>
+ * Evaluations run on a scheduler. When an evaluation has not finished within the delay of its {@link HedgingPolicy},
+ * a second evaluation is started, and whichever finishes first provides the value. An evaluation fails only if both
+ * attempts fail, so a first attempt failing early is retried once the delay passes. The scheduler should therefore
+ * have at least two threads. Threads which cannot wait for an evaluation to finish may read with a deadline through
+ * {@link #memoized(Duration, Object)}.
+ * </p>
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class HedgedMemoizable<T> implements Memoizable<T> {
+  private static final @NonNull Object UNSET = new Object();
+
+  private final @NonNull Supplier<T> supplier;
+  private final @NonNull ScheduledExecutorService scheduler;
+  private final @NonNull HedgingPolicy policy;
+  private final @NonNull LongAdder hedgeCount = new LongAdder();
+  private final @NonNull LongAdder hedgeWinCount = new LongAdder();
+  private volatile @Nullable Object value = UNSET;
+  private @Nullable Evaluation<T> evaluation;
+
+  /**
+   * Create a hedged memoizable.
+   *
+   * @param supplier the supplier of the value, which must be safe to call from two threads at once.
+   * @param scheduler the scheduler to evaluate the value on.
+   * @param policy the policy deciding when to hedge an evaluation.
+   */
+  public HedgedMemoizable(final @NonNull Supplier<T> supplier, final @NonNull ScheduledExecutorService scheduler,
+      final @NonNull HedgingPolicy policy) {
+    this.supplier = supplier;
+    this.scheduler = scheduler;
+    this.policy = policy;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The value memoized before, if any, is still returned by {@link #memoized()} until this evaluation finishes.
+   * </p>
+   */
+  @Override
+  public T evaluateData() {
+    return join(this.start());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Threads asking while a value is being evaluated wait for that evaluation.
+   * </p>
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T memoized() {
+    final Object current = this.value;
+    if (current != UNSET) {
+      return (T) current;
+    }
+
+    return join(this.evaluationInFlight());
+  }
+
+  /**
+   * Get the memoized value, or evaluate one and wait at most the given time for it, returning the fallback if it
+   * takes longer. The evaluation continues in the background, and memoizes its value once it finishes.
+   *
+   * @param timeout the maximum time to wait for an evaluation.
+   * @param fallback the value to return if the evaluation takes longer.
+   * @return the now memoized value, or the fallback.
+   */
+  @SuppressWarnings("unchecked")
+  public T memoized(final @NonNull Duration timeout, final T fallback) {
+    final Object current = this.value;
+    if (current != UNSET) {
+      return (T) current;
+    }
+
+    final CompletableFuture<T> result = this.evaluationInFlight();
+    try {
+      return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (final TimeoutException ex) {
+      return fallback;
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return fallback;
+    } catch (final ExecutionException ex) {
+      throw unwrap(ex.getCause());
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This HedgedMemoizable<T> eager() {
+    this.evaluateData();
+    return this;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.value != UNSET;
+  }
+
+  /**
+   * Discard the memoized value, if any. Threads already waiting for an evaluation still receive its value.
+   */
+  public void invalidate() {
+    synchronized (this) {
+      this.value = UNSET;
+      this.evaluation = null;
+    }
+    MemoizationEvents.invalidated(HedgedMemoizable.class, null);
+  }
+
+  /**
+   * Get the amount of evaluations hedged so far.
+   *
+   * @return the amount of hedges.
+   */
+  public long hedgeCount() {
+    return this.hedgeCount.sum();
+  }
+
+  /**
+   * Get the amount of hedged evaluations which finished before the evaluation they hedged.
+   *
+   * @return the amount of hedges providing the value.
+   */
+  public long hedgeWinCount() {
+    return this.hedgeWinCount.sum();
+  }
+
+  private synchronized @NonNull CompletableFuture<T> evaluationInFlight() {
+    final Evaluation<T> current = this.evaluation;
+    if (current != null) {
+      return current.result;
+    }
+    if (this.value != UNSET) {
+      return CompletableFuture.completedFuture(this.memoized());
+    }
+
+    return this.start();
+  }
+
+  private synchronized @NonNull CompletableFuture<T> start() {
+    final Evaluation<T> started = new Evaluation<>();
+    // The attempt cannot finish before this is assigned, as that needs the lock held here.
+    this.scheduler.execute(() -> this.attempt(started, false));
+    this.evaluation = started;
+    try {
+      final Future<?> hedge = this.scheduler.schedule(() -> this.hedge(started), this.policy.hedgeDelayNanos(),
+          TimeUnit.NANOSECONDS);
+      started.result.whenComplete((value, failure) -> hedge.cancel(false));
+    } catch (final RejectedExecutionException ex) {
+      // The evaluation goes unhedged, and has failed if its first attempt already did.
+      this.abandon(started);
+    }
+    return started.result;
+  }
+
+  private void hedge(final @NonNull Evaluation<T> evaluation) {
+    if (!evaluation.result.isDone()) {
+      this.hedgeCount.increment();
+      this.attempt(evaluation, true);
+    }
+  }
+
+  private void attempt(final @NonNull Evaluation<T> evaluation, final boolean hedge) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final long start = System.nanoTime();
+    final T value;
+    try {
+      value = this.supplier.get();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      evaluation.failure = ex;
+      this.abandon(evaluation);
+      return;
+    } finally {
+      MemoizationEvents.endEvaluation(event, HedgedMemoizable.class, this.supplier, hedge ? "hedge" : null);
+    }
+    this.policy.recordLatency(System.nanoTime() - start);
+
+    synchronized (this) {
+      if (evaluation.result.isDone()) {
+        return;
+      }
+      if (this.evaluation == evaluation) {
+        this.value = value;
+      }
+      if (hedge) {
+        this.hedgeWinCount.increment();
+      }
+      this.finish(evaluation);
+      evaluation.result.complete(value);
+    }
+  }
+
+  /**
+   * Give up on an attempt, failing the evaluation with the failure of an attempt if none is left.
+   */
+  private void abandon(final @NonNull Evaluation<T> evaluation) {
+    // Only a failed attempt leaves none, and it recorded its failure before giving up.
+    if (evaluation.attempts.decrementAndGet() == 0) {
+      this.finish(evaluation);
+      evaluation.result.completeExceptionally(evaluation.failure);
+    }
+  }
+
+  private synchronized void finish(final @NonNull Evaluation<T> evaluation) {
+    if (this.evaluation == evaluation) {
+      this.evaluation = null;
+    }
+  }
+
+  private static <T> T join(final @NonNull CompletableFuture<T> result) {
+    try {
+      return result.join();
+    } catch (final CompletionException ex) {
+      throw unwrap(ex.getCause());
+    }
+  }
+
+  private static @NonNull RuntimeException unwrap(final @Nullable Throwable failure) {
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      return (RuntimeException) failure;
+    }
+    return new IllegalStateException(failure);
+  }
+
+  private static final class Evaluation<T> {
+    private final @NonNull CompletableFuture<T> result = new CompletableFuture<>();
+    // The hedge is counted from the start, so a failing first attempt leaves the evaluation to it.
+    private final @NonNull AtomicInteger attempts = new AtomicInteger(2);
+    private volatile @Nullable Throwable failure;
+  }
+}
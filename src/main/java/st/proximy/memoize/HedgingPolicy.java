@@ -0,0 +1,67 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.time.Duration;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Decides how long a {@link HedgedMemoizable} waits for an evaluation before starting a second, hedging, one.
+ * <p>
+ * A policy may be used by any amount of memoizables, from any thread. Implementations must therefore be thread-safe.
+ * </p>
+ */
+public interface HedgingPolicy {
+  /**
+   * Create a policy which always hedges after the same delay.
+   *
+   * @param delay the time to wait before hedging.
+   * @return a new fixed policy.
+   */
+  static @NonNull HedgingPolicy fixed(final @NonNull Duration delay) {
+    return new FixedHedgingPolicy(delay);
+  }
+
+  /**
+   * Create a policy which hedges once an evaluation takes longer than the given percentile of recent evaluations.
+   *
+   * @param percentile the percentile of latencies to hedge after, between {@code 0} and {@code 100}.
+   * @param sampleSize the amount of recent latencies to take the percentile of.
+   * @param initialDelay the time to wait before hedging until enough latencies are recorded.
+   * @return a new percentile policy.
+   */
+  static @NonNull HedgingPolicy percentile(final double percentile, final int sampleSize,
+      final @NonNull Duration initialDelay) {
+    return new PercentileHedgingPolicy(percentile, sampleSize, initialDelay);
+  }
+
+  /**
+   * Get the time to wait for an evaluation before hedging it.
+   *
+   * @return the delay in nanoseconds.
+   */
+  long hedgeDelayNanos();
+
+  /**
+   * Record the time an evaluation took, whether or not its result was used.
+   *
+   * @param nanos the latency in nanoseconds.
+   */
+  void recordLatency(long nanos);
+}
@@ -0,0 +1,110 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A thread-safe intern table, returning a single canonical instance for all {@link Object#equals(Object) equal}
+ * values.
+ * <p>
+ * Canonical instances are only weakly referenced, so those no longer used elsewhere may be garbage collected.
+ * </p>
+ *
+ * @param <T> the type of the values.
+ * @see CanonicalFactory
+ */
+public final class Interner<T> {
+  private final @NonNull ConcurrentHashMap<WeakKey<T>, WeakKey<T>> table = new ConcurrentHashMap<>();
+  private final @NonNull ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+  /**
+   * Get the canonical instance equal to the given value. If there is none, the given value becomes the canonical
+   * instance.
+   *
+   * @param value the value to intern.
+   * @return the canonical instance.
+   */
+  public @NonNull T intern(final @NonNull T value) {
+    this.expunge();
+    final WeakKey<T> key = new WeakKey<>(value, this.collected);
+    for (;;) {
+      final WeakKey<T> existing = this.table.putIfAbsent(key, key);
+      if (existing == null) {
+        return value;
+      }
+
+      final T canonical = existing.get();
+      if (canonical != null) {
+        key.clear();
+        return canonical;
+      }
+      this.table.remove(existing, existing);
+    }
+  }
+
+  /**
+   * Get the amount of canonical instances. This may include instances which were garbage collected recently.
+   *
+   * @return the amount of canonical instances.
+   */
+  public int size() {
+    this.expunge();
+    return this.table.size();
+  }
+
+  private void expunge() {
+    Reference<? extends T> reference;
+    while ((reference = this.collected.poll()) != null) {
+      this.table.remove(reference, reference);
+    }
+  }
+
+  private static final class WeakKey<T> extends WeakReference<T> {
+    private final int hash;
+
+    private WeakKey(final @NonNull T value, final @NonNull ReferenceQueue<T> queue) {
+      super(value, queue);
+      this.hash = value.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof WeakKey)) {
+        return false;
+      }
+
+      final Object value = this.get();
+      return value != null && value.equals(((WeakKey<?>) other).get());
+    }
+  }
+}
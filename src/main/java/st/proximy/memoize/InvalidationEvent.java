@@ -0,0 +1,42 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A JDK Flight Recorder event of a memoizable discarding its value.
+ */
+@Name("st.proximy.memoize.Invalidation")
+@Label("Memoized Value Invalidation")
+@Category("Memoize")
+@Description("A memoized value was discarded, to be evaluated anew.")
+final class InvalidationEvent extends Event {
+  @Label("Memoizable Type")
+  Class<?> memoizableType;
+
+  @Label("Label")
+  @Description("The key, file or other description of the value, if any.")
+  @Nullable String label;
+}
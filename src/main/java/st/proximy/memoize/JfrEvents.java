@@ -0,0 +1,86 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The JDK Flight Recorder backed implementation of {@link MemoizationEvents}. This is only loaded if JFR is available.
+ */
+final class JfrEvents {
+  private JfrEvents() {
+  }
+
+  static @Nullable Object beginEvaluation() {
+    final EvaluationEvent event = new EvaluationEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+    return event;
+  }
+
+  static void failEvaluation(final @NonNull Object token, final @NonNull Throwable failure) {
+    ((EvaluationEvent) token).failureType = failure.getClass();
+  }
+
+  static void endEvaluation(final @NonNull Object token, final @NonNull Class<?> memoizableType,
+      final @NonNull Object supplier, final @Nullable Object label) {
+    final EvaluationEvent event = (EvaluationEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.memoizableType = memoizableType;
+      event.supplierType = supplier.getClass();
+      event.label = label == null ? null : label.toString();
+      event.commit();
+    }
+  }
+
+  static @Nullable Object beginContention() {
+    final ContentionEvent event = new ContentionEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+    return event;
+  }
+
+  static void endContention(final @NonNull Object token, final @NonNull Class<?> memoizableType,
+      final @Nullable Object label) {
+    final ContentionEvent event = (ContentionEvent) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.memoizableType = memoizableType;
+      event.label = label == null ? null : label.toString();
+      event.commit();
+    }
+  }
+
+  static void invalidated(final @NonNull Class<?> memoizableType, final @Nullable Object label) {
+    final InvalidationEvent event = new InvalidationEvent();
+    if (event.shouldCommit()) {
+      event.memoizableType = memoizableType;
+      event.label = label == null ? null : label.toString();
+      event.commit();
+    }
+  }
+}
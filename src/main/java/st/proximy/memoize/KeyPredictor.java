@@ -0,0 +1,72 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Predicts which keys a {@link PrefetchingMemoizableFunction} is about to be asked for, from the keys it was asked for.
+ * <p>
+ * A predictor is only ever used by a single memoizable, and all of its methods are called while that memoizable holds
+ * its prediction lock. Implementations therefore need not be thread-safe. Accesses made while another thread holds the
+ * lock are not recorded.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ */
+public interface KeyPredictor<K> {
+  /**
+   * Create a predictor of keys visited with a constant stride, such as sequential or strided scans. Once two
+   * consecutive accesses are the same distance apart, the next keys along that stride are predicted.
+   *
+   * @param toLong the function converting a key to its position.
+   * @param fromLong the function converting a position to its key.
+   * @param distance the amount of keys to predict ahead of the last access.
+   * @param <K> the type of the keys.
+   * @return a new stride predictor.
+   */
+  static <K> @NonNull KeyPredictor<K> stride(final @NonNull ToLongFunction<? super K> toLong,
+      final @NonNull LongFunction<? extends K> fromLong, final int distance) {
+    return new StridePredictor<>(toLong, fromLong, distance);
+  }
+
+  /**
+   * Create a predictor of repeated key sequences, which remembers the key accessed after each key and predicts the
+   * keys which followed last time.
+   *
+   * @param maximumKeys the maximum amount of keys to remember the successor of.
+   * @param distance the amount of keys to predict ahead of the last access.
+   * @param <K> the type of the keys.
+   * @return a new sequence predictor.
+   */
+  static <K> @NonNull KeyPredictor<K> sequence(final int maximumKeys, final int distance) {
+    return new SequencePredictor<>(maximumKeys, distance);
+  }
+
+  /**
+   * Record an access of the given key, and predict the keys likely accessed next.
+   *
+   * @param key the accessed key.
+   * @param prediction the consumer of the predicted keys, most likely first.
+   */
+  void recordAccess(@NonNull K key, @NonNull Consumer<? super K> prediction);
+}
@@ -0,0 +1,86 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Memoize values of a method, keyed by its argument.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type to be memoized.
+ */
+public interface KeyedMemoizable<K, V> {
+  /**
+   * Evaluate the value for the given key, and memoize it.
+   * <p>
+   * <i>Note:</i> You should probably use {@link #memoized(Object)} to get the memoized value, or evaluate the value if
+   * not yet memoized.
+   * </p>
+   *
+   * @param key the key to evaluate the value of.
+   * @return the now memoized value.
+   * @see Memoizable#evaluateData()
+   */
+  V evaluateData(@NonNull K key);
+
+  /**
+   * Get the memoized value for the given key, or evaluate and memoize the result of {@link #evaluateData(Object)}.
+   *
+   * @param key the key to get the value of.
+   * @return the now memoized value.
+   * @see Memoizable#memoized()
+   */
+  V memoized(@NonNull K key);
+
+  /**
+   * Get whether there is currently a memoized value for the given key.
+   *
+   * @param key the key to check.
+   * @return whether there is a memoized value.
+   */
+  boolean hasMemoized(@NonNull K key);
+
+  /**
+   * Discard the memoized value for the given key, if any. The next {@link #memoized(Object)} evaluates it anew.
+   *
+   * @param key the key to discard the value of.
+   */
+  void invalidate(@NonNull K key);
+
+  /**
+   * Get a view of the value for the given key as a {@link Memoizable}.
+   *
+   * @param key the key of the value.
+   * @return a memoizable backed by this.
+   */
+  default @NonNull Memoizable<V> memoizable(final @NonNull K key) {
+    return new Memoizable<V>() {
+      @Override
+      public V evaluateData() {
+        return KeyedMemoizable.this.evaluateData(key);
+      }
+
+      @Override
+      public V memoized() {
+        return KeyedMemoizable.this.memoized(key);
+      }
+    };
+  }
+}
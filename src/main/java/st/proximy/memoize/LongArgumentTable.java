@@ -0,0 +1,125 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An open-addressing table mapping tuples of up to three {@code long} arguments to {@code long} values, storing the
+ * arguments in place so lookups allocate nothing.
+ * <p>
+ * This is not thread-safe.
+ * </p>
+ */
+final class LongArgumentTable {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int arity;
+  private long @NonNull [] arguments;
+  private long @NonNull [] values;
+  private boolean @NonNull [] occupied;
+  private int mask;
+  private int size = 0;
+
+  LongArgumentTable(final int arity) {
+    this.arity = arity;
+    this.allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Find the slot of the given arguments. Unused arguments must be {@code 0}.
+   *
+   * @return the slot of the arguments if present, otherwise a negative number.
+   */
+  int indexOf(final long first, final long second, final long third) {
+    int index = hash(first, second, third) & this.mask;
+    while (this.occupied[index]) {
+      if (this.matches(index, first, second, third)) {
+        return index;
+      }
+      index = index + 1 & this.mask;
+    }
+    return -1;
+  }
+
+  long valueAt(final int index) {
+    return this.values[index];
+  }
+
+  void put(final long first, final long second, final long third, final long value) {
+    int index = hash(first, second, third) & this.mask;
+    while (this.occupied[index]) {
+      if (this.matches(index, first, second, third)) {
+        this.values[index] = value;
+        return;
+      }
+      index = index + 1 & this.mask;
+    }
+
+    this.occupied[index] = true;
+    this.values[index] = value;
+    final int offset = index * this.arity;
+    this.arguments[offset] = first;
+    this.arguments[offset + 1] = second;
+    if (this.arity == 3) {
+      this.arguments[offset + 2] = third;
+    }
+
+    if (++this.size > this.values.length >>> 1) {
+      this.resize();
+    }
+  }
+
+  private boolean matches(final int index, final long first, final long second, final long third) {
+    final int offset = index * this.arity;
+    return this.arguments[offset] == first
+        && this.arguments[offset + 1] == second
+        && (this.arity == 2 || this.arguments[offset + 2] == third);
+  }
+
+  private void resize() {
+    final long[] oldArguments = this.arguments;
+    final long[] oldValues = this.values;
+    final boolean[] oldOccupied = this.occupied;
+    this.allocate(oldValues.length << 1);
+    this.size = 0;
+
+    for (int index = 0; index < oldValues.length; ++index) {
+      if (oldOccupied[index]) {
+        final int offset = index * this.arity;
+        this.put(oldArguments[offset], oldArguments[offset + 1], this.arity == 3 ? oldArguments[offset + 2] : 0,
+            oldValues[index]);
+      }
+    }
+  }
+
+  private void allocate(final int capacity) {
+    this.arguments = new long[capacity * this.arity];
+    this.values = new long[capacity];
+    this.occupied = new boolean[capacity];
+    this.mask = capacity - 1;
+  }
+
+  private static int hash(final long first, final long second, final long third) {
+    long hash = first * 0x9e3779b97f4a7c15L;
+    hash = (hash ^ second) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ third) * 0x94d049bb133111ebL;
+    return (int) (hash ^ hash >>> 32);
+  }
+}
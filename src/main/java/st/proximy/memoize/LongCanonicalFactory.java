@@ -0,0 +1,188 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.ref.WeakReference;
+import java.util.function.LongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A thread-safe, memoized constructor, returning the same instance for equal {@code long} inputs. This is the
+ * {@code long}-keyed primitive specialization of {@link CanonicalFactory}; inputs of the narrower integral types widen
+ * to {@code long} without loss.
+ * <p>
+ * Inputs are stored in place, so getting an existing instance allocates nothing. Instances are only weakly referenced,
+ * so those no longer used elsewhere may be garbage collected, after which an equal input constructs a new instance.
+ * </p>
+ *
+ * @param <T> the type of the instances.
+ */
+public final class LongCanonicalFactory<T> implements LongFunction<T> {
+  private static final int SEGMENTS = 16;
+
+  private final @NonNull LongFunction<? extends @NonNull T> constructor;
+  private final @NonNull Segment<T> @NonNull [] segments;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public LongCanonicalFactory(final @NonNull LongFunction<? extends @NonNull T> constructor) {
+    this.constructor = constructor;
+    this.segments = new Segment[SEGMENTS];
+    for (int i = 0; i < SEGMENTS; ++i) {
+      this.segments[i] = new Segment<>();
+    }
+  }
+
+  /**
+   * Returns the canonical instance for the given input, like {@link #canonical(long)}.
+   */
+  @Override
+  public @NonNull T apply(final long input) {
+    return this.canonical(input);
+  }
+
+  /**
+   * Get the canonical instance for the given input, constructing it if there is none.
+   * <p>
+   * The constructor is called without holding any lock, so it may itself get canonical instances from this factory.
+   * Threads racing for the same input may each construct an instance, but only one of them becomes canonical.
+   * </p>
+   *
+   * @param input the input of the constructor.
+   * @return the canonical instance.
+   */
+  public @NonNull T canonical(final long input) {
+    final Segment<T> segment = this.segments[(int) spread(input) & SEGMENTS - 1];
+    synchronized (segment) {
+      final T existing = segment.get(input);
+      if (existing != null) {
+        return existing;
+      }
+    }
+
+    final T created = this.constructor.apply(input);
+    synchronized (segment) {
+      return segment.putIfAbsent(input, created);
+    }
+  }
+
+  private static long spread(final long input) {
+    final long hash = input * 0x9e3779b97f4a7c15L;
+    return hash ^ hash >>> 32;
+  }
+
+  private static final class Segment<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long @NonNull [] keys = new long[INITIAL_CAPACITY];
+    private @Nullable WeakReference<T> @NonNull [] instances = newInstances(INITIAL_CAPACITY);
+    private int occupied = 0;
+
+    private @Nullable T get(final long input) {
+      final int mask = this.keys.length - 1;
+      int index = indexOf(input, mask);
+      WeakReference<T> reference;
+      while ((reference = this.instances[index]) != null) {
+        if (this.keys[index] == input) {
+          return reference.get();
+        }
+        index = index + 1 & mask;
+      }
+      return null;
+    }
+
+    /**
+     * Make the given instance canonical, unless there is a live canonical instance already.
+     *
+     * @return the canonical instance.
+     */
+    private @NonNull T putIfAbsent(final long input, final @NonNull T created) {
+      final int mask = this.keys.length - 1;
+      int index = indexOf(input, mask);
+      WeakReference<T> reference;
+      while ((reference = this.instances[index]) != null) {
+        if (this.keys[index] == input) {
+          final T instance = reference.get();
+          if (instance != null) {
+            return instance;
+          }
+
+          this.instances[index] = new WeakReference<>(created);
+          return created;
+        }
+        index = index + 1 & mask;
+      }
+
+      this.keys[index] = input;
+      this.instances[index] = new WeakReference<>(created);
+      if (++this.occupied > this.keys.length >>> 1) {
+        this.rehash();
+      }
+      return created;
+    }
+
+    /**
+     * Rehash the live instances, dropping those which were garbage collected, and grow if still at least half full.
+     */
+    private void rehash() {
+      final long[] oldKeys = this.keys;
+      final WeakReference<T>[] oldInstances = this.instances;
+      int live = 0;
+      for (final WeakReference<T> reference : oldInstances) {
+        if (reference != null && reference.get() != null) {
+          ++live;
+        }
+      }
+
+      int capacity = INITIAL_CAPACITY;
+      while (live >= capacity >>> 2) {
+        capacity <<= 1;
+      }
+      this.keys = new long[capacity];
+      this.instances = newInstances(capacity);
+      this.occupied = 0;
+
+      final int mask = capacity - 1;
+      for (int i = 0; i < oldKeys.length; ++i) {
+        final WeakReference<T> reference = oldInstances[i];
+        if (reference == null || reference.get() == null) {
+          continue;
+        }
+
+        int index = indexOf(oldKeys[i], mask);
+        while (this.instances[index] != null) {
+          index = index + 1 & mask;
+        }
+        this.keys[index] = oldKeys[i];
+        this.instances[index] = reference;
+        ++this.occupied;
+      }
+    }
+
+    private static int indexOf(final long input, final int mask) {
+      // The lowest bits of the hash select the segment.
+      return (int) (spread(input) >>> 4) & mask;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> @Nullable WeakReference<T> @NonNull [] newInstances(final int capacity) {
+      return new WeakReference[capacity];
+    }
+  }
+}
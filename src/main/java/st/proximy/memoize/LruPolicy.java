@@ -0,0 +1,56 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An {@link EvictionPolicy} which discards the least recently used value first.
+ *
+ * @param <K> the type of the keys.
+ */
+final class LruPolicy<K> implements EvictionPolicy<K> {
+  private final @NonNull LinkedHashSet<K> order = new LinkedHashSet<>();
+
+  @Override
+  public void recordAccess(final @NonNull K key) {
+    if (this.order.remove(key)) {
+      this.order.add(key);
+    }
+  }
+
+  @Override
+  public void recordInsertion(final @NonNull K key) {
+    this.order.add(key);
+  }
+
+  @Override
+  public void recordRemoval(final @NonNull K key) {
+    this.order.remove(key);
+  }
+
+  @Override
+  public @Nullable K selectVictim() {
+    final Iterator<K> iterator = this.order.iterator();
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
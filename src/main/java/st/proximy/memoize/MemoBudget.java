@@ -0,0 +1,222 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A memory budget shared by any amount of {@link BudgetedMemoizable}s, typically one per process.
+ * <p>
+ * Each memoized value is charged its estimated size. When the total exceeds the budget, the least valuable values are
+ * discarded, to be evaluated anew on their next read. The value of a memoized value grows with how expensive it was to
+ * evaluate and in how many periods it was read, and shrinks with its size and the time since it was last read. Time
+ * is measured in periods which end whenever a value is charged. Victims are chosen by sampling a few values rather
+ * than by ordering all of them, so the cost of charging a value does not grow with the amount of memoized values.
+ * </p>
+ * <p>
+ * Values of memoizables which are garbage collected are no longer charged.
+ * </p>
+ */
+public final class MemoBudget {
+  private static final int SAMPLES = 8;
+
+  private final long budget;
+  private final @NonNull List<Entry> entries = new ArrayList<>();
+  private final @NonNull ReferenceQueue<Object> collected = new ReferenceQueue<>();
+  private volatile long period = 0;
+  private long retainedBytes = 0;
+
+  /**
+   * Create a budget.
+   *
+   * @param budget the maximum total estimated size in bytes of the memoized values.
+   */
+  public MemoBudget(final long budget) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("budget must not be negative: " + budget);
+    }
+
+    this.budget = budget;
+  }
+
+  /**
+   * Get the maximum total estimated size in bytes of the memoized values.
+   *
+   * @return the budget.
+   */
+  public long budget() {
+    return this.budget;
+  }
+
+  /**
+   * Get the total estimated size in bytes of the currently memoized values.
+   *
+   * @return the retained size.
+   */
+  public synchronized long retainedBytes() {
+    this.expunge();
+    return this.retainedBytes;
+  }
+
+  /**
+   * Get the amount of currently memoized values.
+   *
+   * @return the amount of values.
+   */
+  public synchronized int size() {
+    this.expunge();
+    return this.entries.size();
+  }
+
+  @NonNull Entry register(final @NonNull Object owner) {
+    return new Entry(this, owner);
+  }
+
+  /**
+   * Charge a value, discarding other values until the total fits the budget.
+   *
+   * @return whether the value is retained.
+   */
+  synchronized boolean charge(final @NonNull Entry entry, final @Nullable Object value, final long size,
+      final long costNanos) {
+    this.expunge();
+    this.discard(entry);
+    if (size > this.budget) {
+      return false;
+    }
+
+    entry.value = value;
+    entry.size = size;
+    entry.costNanos = costNanos;
+    entry.lastPeriod = ++this.period;
+    entry.index = this.entries.size();
+    this.entries.add(entry);
+    this.retainedBytes += size;
+
+    while (this.retainedBytes > this.budget) {
+      this.discard(this.sampleVictim(entry));
+    }
+    return true;
+  }
+
+  /**
+   * Discard the value of an entry, if any.
+   *
+   * @return whether there was a value.
+   */
+  synchronized boolean discard(final @NonNull Entry entry) {
+    if (entry.index < 0) {
+      return false;
+    }
+
+    final Entry last = this.entries.remove(this.entries.size() - 1);
+    if (last != entry) {
+      this.entries.set(entry.index, last);
+      last.index = entry.index;
+    }
+    entry.index = -1;
+    entry.value = Entry.UNSET;
+    this.retainedBytes -= entry.size;
+    entry.size = 0;
+    return true;
+  }
+
+  private @NonNull Entry sampleVictim(final @NonNull Entry charged) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final long now = this.period;
+    Entry victim = null;
+    double victimScore = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < SAMPLES; ++i) {
+      final Entry candidate = this.entries.get(random.nextInt(this.entries.size()));
+      if (candidate == charged) {
+        continue;
+      }
+
+      final double score = candidate.score(now);
+      if (score < victimScore) {
+        victim = candidate;
+        victimScore = score;
+      }
+    }
+
+    // The charged value is only discarded when it is the sole value left.
+    return victim != null ? victim : this.entries.get(this.entries.get(0) == charged ? this.entries.size() - 1 : 0);
+  }
+
+  private void expunge() {
+    Reference<?> reference;
+    while ((reference = this.collected.poll()) != null) {
+      this.discard((Entry) reference);
+    }
+  }
+
+  /**
+   * The memoized value of a single memoizable, and the statistics deciding its value.
+   */
+  static final class Entry extends PhantomReference<Object> {
+    static final @NonNull Object UNSET = new Object();
+
+    private final @NonNull MemoBudget owner;
+    private volatile @Nullable Object value = UNSET;
+    private volatile long lastPeriod = 0;
+    private long periodsRead = 0;
+    private long size = 0;
+    private long costNanos = 0;
+    private int index = -1;
+
+    private Entry(final @NonNull MemoBudget owner, final @NonNull Object memoizable) {
+      super(memoizable, owner.collected);
+      this.owner = owner;
+    }
+
+    /**
+     * Get the memoized value and record the read.
+     *
+     * @return the memoized value, or {@link #UNSET} if there is none.
+     */
+    @Nullable Object read() {
+      final Object current = this.value;
+      if (current != UNSET) {
+        final long now = this.owner.period;
+        // Only the first read in every period is recorded, so reads of hot values write nothing.
+        if (this.lastPeriod != now) {
+          this.lastPeriod = now;
+          ++this.periodsRead;
+        }
+      }
+      return current;
+    }
+
+    boolean hasValue() {
+      return this.value != UNSET;
+    }
+
+    private double score(final long now) {
+      final double worth = (double) (this.periodsRead + 1) * Math.max(this.costNanos, 1);
+      return worth / Math.max(this.size, 1) / (1 + now - this.lastPeriod);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.BiFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link BiFunction} which memoizes its result per two arguments, compared with {@link Object#equals(Object)}. The
+ * arguments are stored in place rather than in a composite key, so a lookup of a memoized result allocates nothing.
+ *
+ * @param <A> the type of the left argument.
+ * @param <B> the type of the right argument.
+ * @param <R> the type of the result.
+ */
+public final class MemoizableBiFunction<A, B, R> implements BiFunction<A, B, R> {
+  private final @NonNull BiFunction<? super A, ? super B, ? extends R> function;
+  private final @NonNull ObjectArgumentTable<R> table = new ObjectArgumentTable<>(2);
+
+  public MemoizableBiFunction(final @NonNull BiFunction<? super A, ? super B, ? extends R> function) {
+    this.function = function;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(Object, Object)}.
+   */
+  @Override
+  public R apply(final A left, final B right) {
+    return this.memoized(left, right);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public R evaluateData(final A left, final B right) {
+    final R value = this.function.apply(left, right);
+    this.table.put(left, right, null, value);
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(Object, Object)}.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public R memoized(final A left, final B right) {
+    final int index = this.table.indexOf(left, right, null);
+    if (index < 0) {
+      return this.evaluateData(left, right);
+    }
+
+    return this.table.valueAt(index);
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final A left, final B right) {
+    return this.table.indexOf(left, right, null) >= 0;
+  }
+}
@@ -62,8 +62,16 @@ public final class MemoizableBoolean implements Memoizable<@NonNull Boolean> {
    * @see #evaluateData()
    */
   public boolean evaluateDataAsBoolean() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.booleanSupplier.getAsBoolean();
+    try {
+      this.memoizedValue = this.booleanSupplier.getAsBoolean();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableBoolean.class, this.booleanSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -86,7 +94,7 @@ public final class MemoizableBoolean implements Memoizable<@NonNull Boolean> {
    */
   public boolean memoizedAsBoolean() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsBoolean();
     }
 
     return this.memoizedValue;
@@ -18,6 +18,7 @@
 
 package st.proximy.memoize;
 
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import st.proximy.memoize.supplier.ByteSupplier;
@@ -61,8 +62,16 @@ public final class MemoizableByte implements Memoizable<@NonNull Byte> {
    * @see #evaluateData()
    */
   public byte evaluateDataAsByte() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.byteSupplier.getAsByte();
+    try {
+      this.memoizedValue = this.byteSupplier.getAsByte();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableByte.class, this.byteSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -85,7 +94,7 @@ public final class MemoizableByte implements Memoizable<@NonNull Byte> {
    */
   public byte memoizedAsByte() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsByte();
     }
 
     return this.memoizedValue;
@@ -99,4 +108,15 @@ public final class MemoizableByte implements Memoizable<@NonNull Byte> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this widened to {@code int}, from which further
+   * memoizables may be derived without boxing.
+   *
+   * @return a new memoizable of the widened value.
+   */
+  public @NonNull MemoizableInteger asMemoizableInteger() {
+    final IntSupplier supplier = this::memoizedAsByte;
+    return new MemoizableInteger(supplier);
+  }
 }
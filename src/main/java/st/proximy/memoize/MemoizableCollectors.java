@@ -0,0 +1,91 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * {@link Collector}s which memoize the function they apply to each element, for streams with repeated elements.
+ * <p>
+ * Each collector shares one {@link ConcurrentMemoizableFunction} between every thread of a parallel stream, so every
+ * distinct element is evaluated only once. The memoized results are kept as long as the collector is, and shared by
+ * every collection using it.
+ * </p>
+ */
+public final class MemoizableCollectors {
+  private MemoizableCollectors() {
+  }
+
+  /**
+   * Create a collector like {@link Collectors#mapping(Function, Collector)}, memoizing the mapper.
+   *
+   * @param mapper the function to apply to each element.
+   * @param downstream the collector of the mapped elements.
+   * @param <T> the type of the elements.
+   * @param <U> the type of the mapped elements.
+   * @param <A> the type of the intermediate accumulation of the downstream collector.
+   * @param <R> the type of the result.
+   * @return a new collector.
+   */
+  public static <T, U, A, R> @NonNull Collector<T, ?, R> mapping(
+      final @NonNull Function<? super T, ? extends U> mapper,
+      final @NonNull Collector<? super U, A, R> downstream) {
+    return Collectors.mapping(new ConcurrentMemoizableFunction<T, U>(mapper), downstream);
+  }
+
+  /**
+   * Create a collector like {@link Collectors#summingInt(ToIntFunction)}, memoizing the mapper without boxing.
+   *
+   * @param mapper the function to apply to each element.
+   * @param <T> the type of the elements.
+   * @return a new collector.
+   */
+  public static <T> @NonNull Collector<T, ?, Integer> summingInt(final @NonNull ToIntFunction<? super T> mapper) {
+    return Collectors.summingInt(new ConcurrentMemoizableToIntFunction<T>(mapper));
+  }
+
+  /**
+   * Create a collector like {@link Collectors#summingLong(ToLongFunction)}, memoizing the mapper without boxing.
+   *
+   * @param mapper the function to apply to each element.
+   * @param <T> the type of the elements.
+   * @return a new collector.
+   */
+  public static <T> @NonNull Collector<T, ?, Long> summingLong(final @NonNull ToLongFunction<? super T> mapper) {
+    return Collectors.summingLong(new ConcurrentMemoizableToLongFunction<T>(mapper));
+  }
+
+  /**
+   * Create a collector like {@link Collectors#summingDouble(ToDoubleFunction)}, memoizing the mapper without boxing.
+   *
+   * @param mapper the function to apply to each element.
+   * @param <T> the type of the elements.
+   * @return a new collector.
+   */
+  public static <T> @NonNull Collector<T, ?, Double> summingDouble(
+      final @NonNull ToDoubleFunction<? super T> mapper) {
+    return Collectors.summingDouble(new ConcurrentMemoizableToDoubleFunction<T>(mapper));
+  }
+}
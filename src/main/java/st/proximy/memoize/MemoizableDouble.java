@@ -18,7 +18,14 @@
 
 package st.proximy.memoize;
 
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
 import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
@@ -62,8 +69,16 @@ public final class MemoizableDouble implements Memoizable<@NonNull Double> {
    * @see #evaluateData()
    */
   public double evaluateDataAsDouble() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.doubleSupplier.getAsDouble();
+    try {
+      this.memoizedValue = this.doubleSupplier.getAsDouble();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableDouble.class, this.doubleSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -86,7 +101,7 @@ public final class MemoizableDouble implements Memoizable<@NonNull Double> {
    */
   public double memoizedAsDouble() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsDouble();
     }
 
     return this.memoizedValue;
@@ -100,4 +115,67 @@ public final class MemoizableDouble implements Memoizable<@NonNull Double> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableDouble map(final @NonNull DoubleUnaryOperator mapper) {
+    final DoubleSupplier supplier = () -> mapper.applyAsDouble(this.memoizedAsDouble());
+    return new MemoizableDouble(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableInteger mapToInt(final @NonNull DoubleToIntFunction mapper) {
+    final IntSupplier supplier = () -> mapper.applyAsInt(this.memoizedAsDouble());
+    return new MemoizableInteger(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableLong mapToLong(final @NonNull DoubleToLongFunction mapper) {
+    final LongSupplier supplier = () -> mapper.applyAsLong(this.memoizedAsDouble());
+    return new MemoizableLong(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. The value of this
+   * is read without boxing when the mapped value is first read.
+   *
+   * @param mapper the function mapping the value of this.
+   * @param <R> the type of the mapped value.
+   * @return a new memoizable of the mapped value.
+   */
+  public <R> @NonNull MemoizableObject<R> mapToObj(final @NonNull DoubleFunction<? extends R> mapper) {
+    final Supplier<R> supplier = () -> mapper.apply(this.memoizedAsDouble());
+    return new MemoizableObject<>(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable combining the memoized values of this and another memoizable with the given
+   * function. None of the values are boxed.
+   *
+   * @param other the other memoizable.
+   * @param combiner the function combining the value of this with the value of the other memoizable.
+   * @return a new memoizable of the combined value.
+   */
+  public @NonNull MemoizableDouble combine(final @NonNull MemoizableDouble other,
+      final @NonNull DoubleBinaryOperator combiner) {
+    final DoubleSupplier supplier = () -> combiner.applyAsDouble(this.memoizedAsDouble(), other.memoizedAsDouble());
+    return new MemoizableDouble(supplier);
+  }
 }
@@ -0,0 +1,91 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.DoubleBinaryOperator;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link DoubleBinaryOperator} which memoizes its result per two {@code double} arguments. The arguments are stored
+ * in place, so a lookup of a memoized result allocates nothing.
+ * <p>
+ * Arguments of type {@code float} widen to {@code double} without loss. Arguments are compared like
+ * {@link Double#equals(Object)}: {@code NaN} equals itself, and {@code 0.0} differs from {@code -0.0}.
+ * </p>
+ */
+public final class MemoizableDoubleBinaryOperator implements DoubleBinaryOperator {
+  private final @NonNull DoubleBinaryOperator operator;
+  private final @NonNull LongArgumentTable table = new LongArgumentTable(2);
+
+  public MemoizableDoubleBinaryOperator(final @NonNull DoubleBinaryOperator operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(double, double)}.
+   */
+  @Override
+  public double applyAsDouble(final double left, final double right) {
+    return this.memoized(left, right);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public double evaluateData(final double left, final double right) {
+    final double value = this.operator.applyAsDouble(left, right);
+    this.table.put(Double.doubleToLongBits(left), Double.doubleToLongBits(right), 0,
+        Double.doubleToRawLongBits(value));
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(double, double)}.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public double memoized(final double left, final double right) {
+    final int index = this.table.indexOf(Double.doubleToLongBits(left), Double.doubleToLongBits(right), 0);
+    if (index < 0) {
+      return this.evaluateData(left, right);
+    }
+
+    return Double.longBitsToDouble(this.table.valueAt(index));
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final double left, final double right) {
+    return this.table.indexOf(Double.doubleToLongBits(left), Double.doubleToLongBits(right), 0) >= 0;
+  }
+}
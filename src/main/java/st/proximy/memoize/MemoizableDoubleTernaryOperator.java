@@ -0,0 +1,96 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import st.proximy.memoize.function.DoubleTernaryOperator;
+
+/**
+ * A {@link DoubleTernaryOperator} which memoizes its result per three {@code double} arguments. The arguments are
+ * stored in place, so a lookup of a memoized result allocates nothing.
+ * <p>
+ * Arguments of type {@code float} widen to {@code double} without loss. Arguments are compared like
+ * {@link Double#equals(Object)}: {@code NaN} equals itself, and {@code 0.0} differs from {@code -0.0}.
+ * </p>
+ */
+public final class MemoizableDoubleTernaryOperator implements DoubleTernaryOperator {
+  private final @NonNull DoubleTernaryOperator operator;
+  private final @NonNull LongArgumentTable table = new LongArgumentTable(3);
+
+  public MemoizableDoubleTernaryOperator(final @NonNull DoubleTernaryOperator operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(double, double, double)}.
+   */
+  @Override
+  public double applyAsDouble(final double first, final double second, final double third) {
+    return this.memoized(first, second, third);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public double evaluateData(final double first, final double second, final double third) {
+    final double value = this.operator.applyAsDouble(first, second, third);
+    this.table.put(Double.doubleToLongBits(first), Double.doubleToLongBits(second),
+        Double.doubleToLongBits(third), Double.doubleToRawLongBits(value));
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(double, double, double)}.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public double memoized(final double first, final double second, final double third) {
+    final int index = this.table.indexOf(Double.doubleToLongBits(first), Double.doubleToLongBits(second),
+        Double.doubleToLongBits(third));
+    if (index < 0) {
+      return this.evaluateData(first, second, third);
+    }
+
+    return Double.longBitsToDouble(this.table.valueAt(index));
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final double first, final double second, final double third) {
+    return this.table.indexOf(Double.doubleToLongBits(first), Double.doubleToLongBits(second),
+        Double.doubleToLongBits(third)) >= 0;
+  }
+}
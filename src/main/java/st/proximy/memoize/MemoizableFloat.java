@@ -18,6 +18,7 @@
 
 package st.proximy.memoize;
 
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import st.proximy.memoize.supplier.FloatSupplier;
@@ -61,8 +62,16 @@ public final class MemoizableFloat implements Memoizable<@NonNull Float> {
    * @see #evaluateData()
    */
   public float evaluateDataAsFloat() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.floatSupplier.getAsFloat();
+    try {
+      this.memoizedValue = this.floatSupplier.getAsFloat();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableFloat.class, this.floatSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -85,7 +94,7 @@ public final class MemoizableFloat implements Memoizable<@NonNull Float> {
    */
   public float memoizedAsFloat() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsFloat();
     }
 
     return this.memoizedValue;
@@ -99,4 +108,15 @@ public final class MemoizableFloat implements Memoizable<@NonNull Float> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this widened to {@code double}, from which further
+   * memoizables may be derived without boxing.
+   *
+   * @return a new memoizable of the widened value.
+   */
+  public @NonNull MemoizableDouble asMemoizableDouble() {
+    final DoubleSupplier supplier = this::memoizedAsFloat;
+    return new MemoizableDouble(supplier);
+  }
 }
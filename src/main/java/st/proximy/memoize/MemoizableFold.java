@@ -0,0 +1,119 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.common.returnsreceiver.qual.This;
+
+/**
+ * A {@link Memoizable} of a left fold over an append-only {@link List}, which only folds the elements appended since
+ * the last read.
+ * <p>
+ * The list should support fast random access. If the list shrinks, the fold is evaluated anew from the identity.
+ * Changes to elements which were already folded are not noticed.
+ * </p>
+ *
+ * @param <E> the type of the elements.
+ * @param <A> the type of the accumulator.
+ */
+public final class MemoizableFold<E, A> implements Memoizable<A> {
+  private final @NonNull List<? extends E> source;
+  private final @NonNull Supplier<? extends A> identity;
+  private final @NonNull BiFunction<A, ? super E, A> accumulator;
+  private boolean hasMemoized = false;
+  private A memoizedValue;
+  private int foldedCount = 0;
+
+  /**
+   * Create a fold.
+   *
+   * @param source the append-only list to fold.
+   * @param identity the supplier of the initial accumulator, called on every full evaluation.
+   * @param accumulator the function folding an element into the accumulator. This may mutate and return the given
+   *     accumulator.
+   */
+  public MemoizableFold(final @NonNull List<? extends E> source, final @NonNull Supplier<? extends A> identity,
+      final @NonNull BiFunction<A, ? super E, A> accumulator) {
+    this.source = source;
+    this.identity = identity;
+    this.accumulator = accumulator;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This folds all elements of the list, starting from the identity.
+   * </p>
+   */
+  @Override
+  public A evaluateData() {
+    this.memoizedValue = this.identity.get();
+    this.foldedCount = 0;
+    this.hasMemoized = true;
+    return this.foldAppended();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This folds only the elements appended since the last read.
+   * </p>
+   */
+  @Override
+  public A memoized() {
+    if (!this.hasMemoized || this.source.size() < this.foldedCount) {
+      return this.evaluateData();
+    }
+
+    return this.foldAppended();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This MemoizableFold<E, A> eager() {
+    this.evaluateData();
+    return this;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.hasMemoized;
+  }
+
+  private A foldAppended() {
+    final int size = this.source.size();
+    A value = this.memoizedValue;
+    for (int index = this.foldedCount; index < size; ++index) {
+      value = this.accumulator.apply(value, this.source.get(index));
+    }
+
+    this.memoizedValue = value;
+    this.foldedCount = size;
+    return value;
+  }
+}
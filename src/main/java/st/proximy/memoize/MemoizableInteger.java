@@ -18,7 +18,14 @@
 
 package st.proximy.memoize;
 
+import java.util.function.DoubleSupplier;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
 import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
@@ -62,8 +69,16 @@ public final class MemoizableInteger implements Memoizable<@NonNull Integer> {
    * @see #evaluateData()
    */
   public int evaluateDataAsInteger() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.intSupplier.getAsInt();
+    try {
+      this.memoizedValue = this.intSupplier.getAsInt();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableInteger.class, this.intSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -86,7 +101,7 @@ public final class MemoizableInteger implements Memoizable<@NonNull Integer> {
    */
   public int memoizedAsInteger() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsInteger();
     }
 
     return this.memoizedValue;
@@ -100,4 +115,67 @@ public final class MemoizableInteger implements Memoizable<@NonNull Integer> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableInteger map(final @NonNull IntUnaryOperator mapper) {
+    final IntSupplier supplier = () -> mapper.applyAsInt(this.memoizedAsInteger());
+    return new MemoizableInteger(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableLong mapToLong(final @NonNull IntToLongFunction mapper) {
+    final LongSupplier supplier = () -> mapper.applyAsLong(this.memoizedAsInteger());
+    return new MemoizableLong(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableDouble mapToDouble(final @NonNull IntToDoubleFunction mapper) {
+    final DoubleSupplier supplier = () -> mapper.applyAsDouble(this.memoizedAsInteger());
+    return new MemoizableDouble(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. The value of this
+   * is read without boxing when the mapped value is first read.
+   *
+   * @param mapper the function mapping the value of this.
+   * @param <R> the type of the mapped value.
+   * @return a new memoizable of the mapped value.
+   */
+  public <R> @NonNull MemoizableObject<R> mapToObj(final @NonNull IntFunction<? extends R> mapper) {
+    final Supplier<R> supplier = () -> mapper.apply(this.memoizedAsInteger());
+    return new MemoizableObject<>(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable combining the memoized values of this and another memoizable with the given
+   * function. None of the values are boxed.
+   *
+   * @param other the other memoizable.
+   * @param combiner the function combining the value of this with the value of the other memoizable.
+   * @return a new memoizable of the combined value.
+   */
+  public @NonNull MemoizableInteger combine(final @NonNull MemoizableInteger other,
+      final @NonNull IntBinaryOperator combiner) {
+    final IntSupplier supplier = () -> combiner.applyAsInt(this.memoizedAsInteger(), other.memoizedAsInteger());
+    return new MemoizableInteger(supplier);
+  }
 }
@@ -0,0 +1,146 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.BiFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link BiFunction} which memoizes only its last result, and evaluates anew whenever either argument changes.
+ * <p>
+ * This suits values derived from inputs which rarely change between calls: unlike a {@link Memoizable}, the value
+ * follows its inputs, and unlike a {@link KeyedMemoizable}, only one value is ever kept. Arguments are compared with
+ * {@link Object#equals(Object)}, or only by identity when created through {@link #identity(BiFunction)}.
+ * </p>
+ * <p>
+ * This is thread-safe: the last arguments and result are replaced together, so a thread never sees a result with
+ * arguments it was not evaluated for, though threads alternating between arguments evaluate each time.
+ * </p>
+ *
+ * @param <A> the type of the left argument.
+ * @param <B> the type of the right argument.
+ * @param <R> the type of the result.
+ */
+public final class MemoizableLastBiFunction<A, B, R> implements BiFunction<A, B, R> {
+  private final @NonNull BiFunction<? super A, ? super B, ? extends R> function;
+  private final boolean identity;
+  private @Nullable Last<A, B, R> last;
+
+  /**
+   * Create a function memoizing its last result, comparing arguments with {@link Object#equals(Object)}.
+   *
+   * @param function the function to memoize.
+   */
+  public MemoizableLastBiFunction(final @NonNull BiFunction<? super A, ? super B, ? extends R> function) {
+    this(function, false);
+  }
+
+  private MemoizableLastBiFunction(final @NonNull BiFunction<? super A, ? super B, ? extends R> function,
+      final boolean identity) {
+    this.function = function;
+    this.identity = identity;
+  }
+
+  /**
+   * Create a function memoizing its last result, comparing arguments only by identity.
+   *
+   * @param function the function to memoize.
+   * @param <A> the type of the left argument.
+   * @param <B> the type of the right argument.
+   * @param <R> the type of the result.
+   * @return a new function.
+   */
+  public static <A, B, R> @NonNull MemoizableLastBiFunction<A, B, R> identity(
+      final @NonNull BiFunction<? super A, ? super B, ? extends R> function) {
+    return new MemoizableLastBiFunction<>(function, true);
+  }
+
+  /**
+   * Get the memoized result if the arguments are the last ones given, otherwise evaluate and memoize their result.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   */
+  @Override
+  public R apply(final A left, final B right) {
+    final Last<A, B, R> current = this.last;
+    if (current != null && this.matches(current.left, left) && this.matches(current.right, right)) {
+      return current.value;
+    }
+
+    return this.evaluateData(left, right);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it in place of the last one.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public R evaluateData(final A left, final B right) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final R value;
+    try {
+      value = this.function.apply(left, right);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableLastBiFunction.class, this.function);
+    }
+    this.last = new Last<>(left, right, value);
+    return value;
+  }
+
+  /**
+   * Get whether there is currently a memoized result within this.
+   *
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized() {
+    return this.last != null;
+  }
+
+  /**
+   * Discard the memoized result, if any, and the arguments it was evaluated for.
+   */
+  public void invalidate() {
+    this.last = null;
+  }
+
+  private boolean matches(final @Nullable Object last, final @Nullable Object input) {
+    return last == input || !this.identity && input != null && input.equals(last);
+  }
+
+  private static final class Last<A, B, R> {
+    private final A left;
+    private final B right;
+    private final R value;
+
+    private Last(final A left, final B right, final R value) {
+      this.left = left;
+      this.right = right;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link Function} which memoizes only its last result, and evaluates anew whenever it is given another argument.
+ * <p>
+ * This suits values derived from inputs which rarely change between calls: unlike a {@link Memoizable}, the value
+ * follows its input, and unlike a {@link KeyedMemoizable}, only one value is ever kept. Arguments are compared with
+ * {@link Object#equals(Object)}, or only by identity when created through {@link #identity(Function)}.
+ * </p>
+ * <p>
+ * This is thread-safe: the last argument and result are replaced together, so a thread never sees a result with an
+ * argument it was not evaluated for, though threads alternating between arguments evaluate each time.
+ * </p>
+ *
+ * @param <T> the type of the argument.
+ * @param <R> the type of the result.
+ */
+public final class MemoizableLastFunction<T, R> implements Function<T, R> {
+  private final @NonNull Function<? super T, ? extends R> function;
+  private final boolean identity;
+  private @Nullable Last<T, R> last;
+
+  /**
+   * Create a function memoizing its last result, comparing arguments with {@link Object#equals(Object)}.
+   *
+   * @param function the function to memoize.
+   */
+  public MemoizableLastFunction(final @NonNull Function<? super T, ? extends R> function) {
+    this(function, false);
+  }
+
+  private MemoizableLastFunction(final @NonNull Function<? super T, ? extends R> function, final boolean identity) {
+    this.function = function;
+    this.identity = identity;
+  }
+
+  /**
+   * Create a function memoizing its last result, comparing arguments only by identity.
+   *
+   * @param function the function to memoize.
+   * @param <T> the type of the argument.
+   * @param <R> the type of the result.
+   * @return a new function.
+   */
+  public static <T, R> @NonNull MemoizableLastFunction<T, R> identity(
+      final @NonNull Function<? super T, ? extends R> function) {
+    return new MemoizableLastFunction<>(function, true);
+  }
+
+  /**
+   * Get the memoized result if the argument is the last one given, otherwise evaluate and memoize its result.
+   *
+   * @param input the argument.
+   * @return the now memoized result.
+   */
+  @Override
+  public R apply(final T input) {
+    final Last<T, R> current = this.last;
+    if (current != null
+        && (current.input == input || !this.identity && input != null && input.equals(current.input))) {
+      return current.value;
+    }
+
+    return this.evaluateData(input);
+  }
+
+  /**
+   * Evaluate the result for the given argument, and memoize it in place of the last one.
+   *
+   * @param input the argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public R evaluateData(final T input) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final R value;
+    try {
+      value = this.function.apply(input);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableLastFunction.class, this.function);
+    }
+    this.last = new Last<>(input, value);
+    return value;
+  }
+
+  /**
+   * Get whether there is currently a memoized result within this.
+   *
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized() {
+    return this.last != null;
+  }
+
+  /**
+   * Discard the memoized result, if any, and the argument it was evaluated for.
+   */
+  public void invalidate() {
+    this.last = null;
+  }
+
+  private static final class Last<T, R> {
+    private final T input;
+    private final R value;
+
+    private Last(final T input, final R value) {
+      this.input = input;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.IntFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An {@link IntFunction} which memoizes only its last result, and evaluates anew whenever it is given another
+ * argument. The argument is never boxed.
+ * <p>
+ * This is the {@code int} specialization of {@link MemoizableLastFunction}. See that class for more detail.
+ * </p>
+ *
+ * @param <R> the type of the result.
+ */
+public final class MemoizableLastIntFunction<R> implements IntFunction<R> {
+  private final @NonNull IntFunction<? extends R> function;
+  private @Nullable Last<R> last;
+
+  public MemoizableLastIntFunction(final @NonNull IntFunction<? extends R> function) {
+    this.function = function;
+  }
+
+  /**
+   * Get the memoized result if the argument is the last one given, otherwise evaluate and memoize its result.
+   *
+   * @param input the argument.
+   * @return the now memoized result.
+   */
+  @Override
+  public R apply(final int input) {
+    final Last<R> current = this.last;
+    if (current != null && current.input == input) {
+      return current.value;
+    }
+
+    return this.evaluateData(input);
+  }
+
+  /**
+   * Evaluate the result for the given argument, and memoize it in place of the last one.
+   *
+   * @param input the argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public R evaluateData(final int input) {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final R value;
+    try {
+      value = this.function.apply(input);
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableLastIntFunction.class, this.function);
+    }
+    this.last = new Last<>(input, value);
+    return value;
+  }
+
+  /**
+   * Get whether there is currently a memoized result within this.
+   *
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized() {
+    return this.last != null;
+  }
+
+  /**
+   * Discard the memoized result, if any, and the argument it was evaluated for.
+   */
+  public void invalidate() {
+    this.last = null;
+  }
+
+  private static final class Last<R> {
+    private final int input;
+    private final R value;
+
+    private Last(final int input, final R value) {
+      this.input = input;
+      this.value = value;
+    }
+  }
+}
@@ -18,7 +18,14 @@
 
 package st.proximy.memoize;
 
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
@@ -62,8 +69,16 @@ public final class MemoizableLong implements Memoizable<@NonNull Long> {
    * @see #evaluateData()
    */
   public long evaluateDataAsLong() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.longSupplier.getAsLong();
+    try {
+      this.memoizedValue = this.longSupplier.getAsLong();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableLong.class, this.longSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -86,7 +101,7 @@ public final class MemoizableLong implements Memoizable<@NonNull Long> {
    */
   public long memoizedAsLong() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsLong();
     }
 
     return this.memoizedValue;
@@ -100,4 +115,67 @@ public final class MemoizableLong implements Memoizable<@NonNull Long> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableLong map(final @NonNull LongUnaryOperator mapper) {
+    final LongSupplier supplier = () -> mapper.applyAsLong(this.memoizedAsLong());
+    return new MemoizableLong(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableInteger mapToInt(final @NonNull LongToIntFunction mapper) {
+    final IntSupplier supplier = () -> mapper.applyAsInt(this.memoizedAsLong());
+    return new MemoizableInteger(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. Neither value is
+   * boxed.
+   *
+   * @param mapper the function mapping the value of this.
+   * @return a new memoizable of the mapped value.
+   */
+  public @NonNull MemoizableDouble mapToDouble(final @NonNull LongToDoubleFunction mapper) {
+    final DoubleSupplier supplier = () -> mapper.applyAsDouble(this.memoizedAsLong());
+    return new MemoizableDouble(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this mapped by the given function. The value of this
+   * is read without boxing when the mapped value is first read.
+   *
+   * @param mapper the function mapping the value of this.
+   * @param <R> the type of the mapped value.
+   * @return a new memoizable of the mapped value.
+   */
+  public <R> @NonNull MemoizableObject<R> mapToObj(final @NonNull LongFunction<? extends R> mapper) {
+    final Supplier<R> supplier = () -> mapper.apply(this.memoizedAsLong());
+    return new MemoizableObject<>(supplier);
+  }
+
+  /**
+   * Create a lazily evaluated memoizable combining the memoized values of this and another memoizable with the given
+   * function. None of the values are boxed.
+   *
+   * @param other the other memoizable.
+   * @param combiner the function combining the value of this with the value of the other memoizable.
+   * @return a new memoizable of the combined value.
+   */
+  public @NonNull MemoizableLong combine(final @NonNull MemoizableLong other,
+      final @NonNull LongBinaryOperator combiner) {
+    final LongSupplier supplier = () -> combiner.applyAsLong(this.memoizedAsLong(), other.memoizedAsLong());
+    return new MemoizableLong(supplier);
+  }
 }
@@ -0,0 +1,89 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.LongBinaryOperator;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link LongBinaryOperator} which memoizes its result per two {@code long} arguments. The arguments are stored
+ * in place, so a lookup of a memoized result allocates nothing.
+ * <p>
+ * Arguments of the narrower integral types widen to {@code long} without loss.
+ * </p>
+ */
+public final class MemoizableLongBinaryOperator implements LongBinaryOperator {
+  private final @NonNull LongBinaryOperator operator;
+  private final @NonNull LongArgumentTable table = new LongArgumentTable(2);
+
+  public MemoizableLongBinaryOperator(final @NonNull LongBinaryOperator operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(long, long)}.
+   */
+  @Override
+  public long applyAsLong(final long left, final long right) {
+    return this.memoized(left, right);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public long evaluateData(final long left, final long right) {
+    final long value = this.operator.applyAsLong(left, right);
+    this.table.put(left, right, 0, value);
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(long, long)}.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public long memoized(final long left, final long right) {
+    final int index = this.table.indexOf(left, right, 0);
+    if (index < 0) {
+      return this.evaluateData(left, right);
+    }
+
+    return this.table.valueAt(index);
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param left the left argument.
+   * @param right the right argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final long left, final long right) {
+    return this.table.indexOf(left, right, 0) >= 0;
+  }
+}
@@ -0,0 +1,142 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.common.returnsreceiver.qual.This;
+import st.proximy.memoize.function.LongFoldFunction;
+
+/**
+ * A {@link Memoizable} of a left fold into a {@code long} over an append-only {@link List}, which only folds the
+ * elements appended since the last read.
+ * <p>
+ * The list should support fast random access. If the list shrinks, the fold is evaluated anew from the identity.
+ * Changes to elements which were already folded are not noticed.
+ * </p>
+ *
+ * @param <E> the type of the elements.
+ * @see MemoizableFold
+ */
+public final class MemoizableLongFold<E> implements Memoizable<@NonNull Long> {
+  private final @NonNull List<? extends E> source;
+  private final long identity;
+  private final @NonNull LongFoldFunction<? super E> accumulator;
+  private boolean hasMemoized = false;
+  private long memoizedValue;
+  private int foldedCount = 0;
+
+  /**
+   * Create a fold.
+   *
+   * @param source the append-only list to fold.
+   * @param identity the initial accumulator.
+   * @param accumulator the function folding an element into the accumulator.
+   */
+  public MemoizableLongFold(final @NonNull List<? extends E> source, final long identity,
+      final @NonNull LongFoldFunction<? super E> accumulator) {
+    this.source = source;
+    this.identity = identity;
+    this.accumulator = accumulator;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see #evaluateDataAsLong()
+   */
+  @Override
+  public @NonNull Long evaluateData() {
+    return this.evaluateDataAsLong();
+  }
+
+  /**
+   * Evaluates the data like {@link #evaluateData()}, except with a primitive. See that method for more detail.
+   * <p>
+   * This folds all elements of the list, starting from the identity.
+   * </p>
+   *
+   * @return the now memoized value.
+   * @see #evaluateData()
+   */
+  public long evaluateDataAsLong() {
+    this.memoizedValue = this.identity;
+    this.foldedCount = 0;
+    this.hasMemoized = true;
+    return this.foldAppended();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see #memoizedAsLong()
+   */
+  @Override
+  public @NonNull Long memoized() {
+    return this.memoizedAsLong();
+  }
+
+  /**
+   * Returns the memoized value, or evaluates one then returns it if there is none currently memoized, just like in
+   * {@link #memoized()} except with a primitive. See {@link #memoized()} for more detail.
+   * <p>
+   * This folds only the elements appended since the last read.
+   * </p>
+   *
+   * @return the now memoized value.
+   * @see #memoized()
+   */
+  public long memoizedAsLong() {
+    if (!this.hasMemoized || this.source.size() < this.foldedCount) {
+      return this.evaluateDataAsLong();
+    }
+
+    return this.foldAppended();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This MemoizableLongFold<E> eager() {
+    this.evaluateDataAsLong();
+    return this;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.hasMemoized;
+  }
+
+  private long foldAppended() {
+    final int size = this.source.size();
+    long value = this.memoizedValue;
+    for (int index = this.foldedCount; index < size; ++index) {
+      value = this.accumulator.applyAsLong(value, this.source.get(index));
+    }
+
+    this.memoizedValue = value;
+    this.foldedCount = size;
+    return value;
+  }
+}
@@ -0,0 +1,92 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import st.proximy.memoize.function.LongTernaryOperator;
+
+/**
+ * A {@link LongTernaryOperator} which memoizes its result per three {@code long} arguments. The arguments are stored
+ * in place, so a lookup of a memoized result allocates nothing.
+ * <p>
+ * Arguments of the narrower integral types widen to {@code long} without loss.
+ * </p>
+ */
+public final class MemoizableLongTernaryOperator implements LongTernaryOperator {
+  private final @NonNull LongTernaryOperator operator;
+  private final @NonNull LongArgumentTable table = new LongArgumentTable(3);
+
+  public MemoizableLongTernaryOperator(final @NonNull LongTernaryOperator operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(long, long, long)}.
+   */
+  @Override
+  public long applyAsLong(final long first, final long second, final long third) {
+    return this.memoized(first, second, third);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public long evaluateData(final long first, final long second, final long third) {
+    final long value = this.operator.applyAsLong(first, second, third);
+    this.table.put(first, second, third, value);
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(long, long, long)}.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public long memoized(final long first, final long second, final long third) {
+    final int index = this.table.indexOf(first, second, third);
+    if (index < 0) {
+      return this.evaluateData(first, second, third);
+    }
+
+    return this.table.valueAt(index);
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final long first, final long second, final long third) {
+    return this.table.indexOf(first, second, third) >= 0;
+  }
+}
@@ -47,8 +47,16 @@ public final class MemoizableObject<T> implements Memoizable<T> {
    */
   @Override
   public T evaluateData() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.supplier.get();
+    try {
+      this.memoizedValue = this.supplier.get();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableObject.class, this.supplier);
+    }
     return this.memoizedValue;
   }
 
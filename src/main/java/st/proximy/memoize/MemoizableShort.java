@@ -18,6 +18,7 @@
 
 package st.proximy.memoize;
 
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import st.proximy.memoize.supplier.ShortSupplier;
@@ -62,8 +63,16 @@ public final class MemoizableShort implements Memoizable<@NonNull Short> {
    * @see #evaluateData()
    */
   public short evaluateDataAsShort() {
+    final Object event = MemoizationEvents.beginEvaluation();
     this.hasMemoized = true;
-    this.memoizedValue = this.shortSupplier.getAsShort();
+    try {
+      this.memoizedValue = this.shortSupplier.getAsShort();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, MemoizableShort.class, this.shortSupplier);
+    }
     return this.memoizedValue;
   }
 
@@ -86,7 +95,7 @@ public final class MemoizableShort implements Memoizable<@NonNull Short> {
    */
   public short memoizedAsShort() {
     if (!this.hasMemoized) {
-      return this.evaluateData();
+      return this.evaluateDataAsShort();
     }
 
     return this.memoizedValue;
@@ -100,4 +109,15 @@ public final class MemoizableShort implements Memoizable<@NonNull Short> {
   public boolean hasMemoized() {
     return this.hasMemoized;
   }
+
+  /**
+   * Create a lazily evaluated memoizable of the memoized value of this widened to {@code int}, from which further
+   * memoizables may be derived without boxing.
+   *
+   * @return a new memoizable of the widened value.
+   */
+  public @NonNull MemoizableInteger asMemoizableInteger() {
+    final IntSupplier supplier = this::memoizedAsShort;
+    return new MemoizableInteger(supplier);
+  }
 }
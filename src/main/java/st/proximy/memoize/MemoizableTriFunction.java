@@ -0,0 +1,94 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import st.proximy.memoize.function.TriFunction;
+
+/**
+ * A {@link TriFunction} which memoizes its result per three arguments, compared with {@link Object#equals(Object)}. The
+ * arguments are stored in place rather than in a composite key, so a lookup of a memoized result allocates nothing.
+ *
+ * @param <A> the type of the first argument.
+ * @param <B> the type of the second argument.
+ * @param <C> the type of the third argument.
+ * @param <R> the type of the result.
+ */
+public final class MemoizableTriFunction<A, B, C, R> implements TriFunction<A, B, C, R> {
+  private final @NonNull TriFunction<? super A, ? super B, ? super C, ? extends R> function;
+  private final @NonNull ObjectArgumentTable<R> table = new ObjectArgumentTable<>(3);
+
+  public MemoizableTriFunction(final @NonNull TriFunction<? super A, ? super B, ? super C, ? extends R> function) {
+    this.function = function;
+  }
+
+  /**
+   * Returns the memoized result for the given arguments, like {@link #memoized(Object, Object, Object)}.
+   */
+  @Override
+  public R apply(final A first, final B second, final C third) {
+    return this.memoized(first, second, third);
+  }
+
+  /**
+   * Evaluate the result for the given arguments, and memoize it.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#evaluateData()
+   */
+  public R evaluateData(final A first, final B second, final C third) {
+    final R value = this.function.apply(first, second, third);
+    this.table.put(first, second, third, value);
+    return value;
+  }
+
+  /**
+   * Get the memoized result for the given arguments, or evaluate and memoize the result of
+   * {@link #evaluateData(Object, Object, Object)}.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return the now memoized result.
+   * @see Memoizable#memoized()
+   */
+  public R memoized(final A first, final B second, final C third) {
+    final int index = this.table.indexOf(first, second, third);
+    if (index < 0) {
+      return this.evaluateData(first, second, third);
+    }
+
+    return this.table.valueAt(index);
+  }
+
+  /**
+   * Get whether there is currently a memoized result for the given arguments.
+   *
+   * @param first the first argument.
+   * @param second the second argument.
+   * @param third the third argument.
+   * @return whether there is a memoized result.
+   */
+  public boolean hasMemoized(final A first, final B second, final C third) {
+    return this.table.indexOf(first, second, third) >= 0;
+  }
+}
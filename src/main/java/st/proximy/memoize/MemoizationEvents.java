@@ -0,0 +1,127 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events of memoization activity, if JFR is available at runtime.
+ * <p>
+ * Events are only emitted on the paths evaluating or discarding values, never when reading an already memoized value.
+ * When JFR is not available, every method returns immediately; when it is available but the event is disabled in the
+ * recording settings, only a short-lived event object is created. Labels are only converted to strings for events
+ * which are recorded.
+ * </p>
+ */
+final class MemoizationEvents {
+  private static final boolean AVAILABLE = isAvailable();
+
+  private MemoizationEvents() {
+  }
+
+  /**
+   * Begin timing an evaluation.
+   *
+   * @return the token to end the evaluation with, or {@code null} if it is not recorded.
+   */
+  static @Nullable Object beginEvaluation() {
+    return AVAILABLE ? JfrEvents.beginEvaluation() : null;
+  }
+
+  static void endEvaluation(final @Nullable Object token, final @NonNull Class<?> memoizableType,
+      final @NonNull Object supplier) {
+    endEvaluation(token, memoizableType, supplier, null);
+  }
+
+  /**
+   * Mark an evaluation as failed, before ending it.
+   *
+   * @param token the token of {@link #beginEvaluation()}.
+   * @param failure the exception the evaluation failed with.
+   */
+  static void failEvaluation(final @Nullable Object token, final @NonNull Throwable failure) {
+    if (token != null) {
+      JfrEvents.failEvaluation(token, failure);
+    }
+  }
+
+  /**
+   * End timing an evaluation, and record it. This must be called whether or not the evaluation failed.
+   *
+   * @param token the token of {@link #beginEvaluation()}.
+   * @param memoizableType the type of the evaluating memoizable.
+   * @param supplier the supplier or function evaluating the value.
+   * @param label the key or other description of the value, if any.
+   */
+  static void endEvaluation(final @Nullable Object token, final @NonNull Class<?> memoizableType,
+      final @NonNull Object supplier, final @Nullable Object label) {
+    if (token != null) {
+      JfrEvents.endEvaluation(token, memoizableType, supplier, label);
+    }
+  }
+
+  /**
+   * Begin timing a wait for another thread.
+   *
+   * @return the token to end the wait with, or {@code null} if it is not recorded.
+   */
+  static @Nullable Object beginContention() {
+    return AVAILABLE ? JfrEvents.beginContention() : null;
+  }
+
+  /**
+   * End timing a wait for another thread, and record it.
+   *
+   * @param token the token of {@link #beginContention()}.
+   * @param memoizableType the type of the memoizable waited on.
+   * @param label the key or other description of the value, if any.
+   */
+  static void endContention(final @Nullable Object token, final @NonNull Class<?> memoizableType,
+      final @Nullable Object label) {
+    if (token != null) {
+      JfrEvents.endContention(token, memoizableType, label);
+    }
+  }
+
+  /**
+   * Record the discarding of a memoized value.
+   *
+   * @param memoizableType the type of the memoizable discarding the value.
+   * @param label the key or other description of the value, if any.
+   */
+  static void invalidated(final @NonNull Class<?> memoizableType, final @Nullable Object label) {
+    if (AVAILABLE) {
+      JfrEvents.invalidated(memoizableType, label);
+    }
+  }
+
+  static boolean isAvailable() {
+    return isAvailable("jdk.jfr.Event");
+  }
+
+  static boolean isAvailable(final @NonNull String eventClassName) {
+    try {
+      Class.forName(eventClassName);
+      return true;
+    } catch (final ClassNotFoundException | LinkageError ex) {
+      return false;
+    }
+  }
+}
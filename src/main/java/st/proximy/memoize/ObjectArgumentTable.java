@@ -0,0 +1,132 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An open-addressing table mapping tuples of up to three arguments to values, storing the arguments in place so
+ * lookups allocate nothing. Arguments are compared with {@link Object#equals(Object)}, and may be {@code null}.
+ * <p>
+ * This is not thread-safe.
+ * </p>
+ *
+ * @param <R> the type of the values.
+ */
+final class ObjectArgumentTable<R> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int arity;
+  private @Nullable Object @NonNull [] arguments;
+  private @Nullable Object @NonNull [] values;
+  private boolean @NonNull [] occupied;
+  private int mask;
+  private int size = 0;
+
+  ObjectArgumentTable(final int arity) {
+    this.arity = arity;
+    this.allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Find the slot of the given arguments. Unused arguments must be {@code null}.
+   *
+   * @return the slot of the arguments if present, otherwise a negative number.
+   */
+  int indexOf(final @Nullable Object first, final @Nullable Object second, final @Nullable Object third) {
+    int index = hash(first, second, third) & this.mask;
+    while (this.occupied[index]) {
+      if (this.matches(index, first, second, third)) {
+        return index;
+      }
+      index = index + 1 & this.mask;
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  R valueAt(final int index) {
+    return (R) this.values[index];
+  }
+
+  void put(final @Nullable Object first, final @Nullable Object second, final @Nullable Object third, final R value) {
+    int index = hash(first, second, third) & this.mask;
+    while (this.occupied[index]) {
+      if (this.matches(index, first, second, third)) {
+        this.values[index] = value;
+        return;
+      }
+      index = index + 1 & this.mask;
+    }
+
+    this.occupied[index] = true;
+    this.values[index] = value;
+    final int offset = index * this.arity;
+    this.arguments[offset] = first;
+    this.arguments[offset + 1] = second;
+    if (this.arity == 3) {
+      this.arguments[offset + 2] = third;
+    }
+
+    if (++this.size > this.values.length >>> 1) {
+      this.resize();
+    }
+  }
+
+  private boolean matches(final int index, final @Nullable Object first, final @Nullable Object second,
+      final @Nullable Object third) {
+    final int offset = index * this.arity;
+    return Objects.equals(this.arguments[offset], first)
+        && Objects.equals(this.arguments[offset + 1], second)
+        && (this.arity == 2 || Objects.equals(this.arguments[offset + 2], third));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize() {
+    final Object[] oldArguments = this.arguments;
+    final Object[] oldValues = this.values;
+    final boolean[] oldOccupied = this.occupied;
+    this.allocate(oldValues.length << 1);
+    this.size = 0;
+
+    for (int index = 0; index < oldValues.length; ++index) {
+      if (oldOccupied[index]) {
+        final int offset = index * this.arity;
+        this.put(oldArguments[offset], oldArguments[offset + 1], this.arity == 3 ? oldArguments[offset + 2] : null,
+            (R) oldValues[index]);
+      }
+    }
+  }
+
+  private void allocate(final int capacity) {
+    this.arguments = new Object[capacity * this.arity];
+    this.values = new Object[capacity];
+    this.occupied = new boolean[capacity];
+    this.mask = capacity - 1;
+  }
+
+  private static int hash(final @Nullable Object first, final @Nullable Object second,
+      final @Nullable Object third) {
+    final int hash = ((Objects.hashCode(first) * 31 + Objects.hashCode(second)) * 31 + Objects.hashCode(third))
+        * 0x9e3779b9;
+    return hash ^ hash >>> 16;
+  }
+}
@@ -0,0 +1,77 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link HedgingPolicy} which hedges after a percentile of the most recently recorded latencies.
+ * <p>
+ * The latencies are kept in a ring buffer. The percentile is only computed when a delay is asked for, which happens
+ * once per evaluation, so recording a latency stays cheap.
+ * </p>
+ */
+final class PercentileHedgingPolicy implements HedgingPolicy {
+  private static final int MINIMUM_SAMPLES = 16;
+
+  private final double percentile;
+  private final long initialDelayNanos;
+  private final long @NonNull [] latencies;
+  private int recorded = 0;
+  private int next = 0;
+
+  PercentileHedgingPolicy(final double percentile, final int sampleSize, final @NonNull Duration initialDelay) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+    }
+    if (sampleSize < MINIMUM_SAMPLES) {
+      throw new IllegalArgumentException("sampleSize must be at least " + MINIMUM_SAMPLES + ": " + sampleSize);
+    }
+    if (initialDelay.isNegative()) {
+      throw new IllegalArgumentException("initialDelay must not be negative: " + initialDelay);
+    }
+
+    this.percentile = percentile;
+    this.initialDelayNanos = initialDelay.toNanos();
+    this.latencies = new long[sampleSize];
+  }
+
+  @Override
+  public synchronized long hedgeDelayNanos() {
+    if (this.recorded < MINIMUM_SAMPLES) {
+      return this.initialDelayNanos;
+    }
+
+    final long[] sorted = Arrays.copyOf(this.latencies, this.recorded);
+    Arrays.sort(sorted);
+    final int rank = (int) Math.ceil(this.percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(rank, 0)];
+  }
+
+  @Override
+  public synchronized void recordLatency(final long nanos) {
+    this.latencies[this.next] = nanos;
+    this.next = (this.next + 1) % this.latencies.length;
+    if (this.recorded < this.latencies.length) {
+      ++this.recorded;
+    }
+  }
+}
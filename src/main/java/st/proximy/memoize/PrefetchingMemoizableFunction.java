@@ -0,0 +1,259 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link KeyedMemoizable} which evaluates the keys a {@link KeyPredictor} expects to be asked for next in the
+ * background, so they are memoized by the time they are asked for.
+ * <p>
+ * The memoized values are kept by a delegate, which must be thread-safe and evaluate each key only once at a time,
+ * such as a {@link ConcurrentMemoizableFunction}: a read racing the prefetch of its key then waits for the prefetch.
+ * A delegate which does not, such as a {@link BoundedMemoizableFunction}, evaluates such a key twice. Prefetches are
+ * throttled twice: no more than a given amount are evaluated at once, and no more are started while a given amount of
+ * prefetched values are yet to be read. Prefetches beyond either bound are dropped rather than queued.
+ * </p>
+ * <p>
+ * A prefetch is counted as a hit when its key is read while still being evaluated or memoized, and as wasted when its
+ * value is discarded, or fails to evaluate, before being read.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type to be memoized.
+ */
+public final class PrefetchingMemoizableFunction<K, V> implements KeyedMemoizable<K, V> {
+  private final @NonNull KeyedMemoizable<K, V> delegate;
+  private final @NonNull KeyPredictor<K> predictor;
+  private final @NonNull Executor executor;
+  private final @NonNull Semaphore inFlight;
+  private final int maximumUnread;
+  private final @NonNull Set<K> unread = ConcurrentHashMap.newKeySet();
+  private final @NonNull Set<K> pending = ConcurrentHashMap.newKeySet();
+  private final @NonNull ReentrantLock predictionLock = new ReentrantLock();
+  private final @NonNull ReentrantLock sweepLock = new ReentrantLock();
+  private final @NonNull Consumer<K> prefetch = this::prefetch;
+  private final @NonNull LongAdder prefetchCount = new LongAdder();
+  private final @NonNull LongAdder hitCount = new LongAdder();
+  private final @NonNull LongAdder wastedCount = new LongAdder();
+  private final @NonNull LongAdder droppedCount = new LongAdder();
+
+  /**
+   * Create a prefetching memoizable function.
+   *
+   * @param delegate the thread-safe memoizable keeping the values.
+   * @param predictor the predictor of the keys to prefetch.
+   * @param executor the executor to evaluate prefetched keys on.
+   * @param maximumInFlight the maximum amount of prefetches evaluated at once.
+   * @param maximumUnread the maximum amount of prefetched values yet to be read.
+   */
+  public PrefetchingMemoizableFunction(final @NonNull KeyedMemoizable<K, V> delegate,
+      final @NonNull KeyPredictor<K> predictor, final @NonNull Executor executor, final int maximumInFlight,
+      final int maximumUnread) {
+    if (maximumInFlight < 1) {
+      throw new IllegalArgumentException("maximumInFlight must be positive: " + maximumInFlight);
+    }
+    if (maximumUnread < maximumInFlight) {
+      throw new IllegalArgumentException("maximumUnread must be at least maximumInFlight: " + maximumUnread);
+    }
+
+    this.delegate = delegate;
+    this.predictor = predictor;
+    this.executor = executor;
+    this.inFlight = new Semaphore(maximumInFlight);
+    this.maximumUnread = maximumUnread;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    this.recordRead(key);
+    return this.delegate.evaluateData(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The keys predicted to follow are prefetched before the value for this key is read or evaluated.
+   * </p>
+   */
+  @Override
+  public V memoized(final @NonNull K key) {
+    this.recordRead(key);
+    return this.delegate.memoized(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    return this.delegate.hasMemoized(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    if (this.unread.remove(key)) {
+      this.wastedCount.increment();
+    }
+    this.delegate.invalidate(key);
+  }
+
+  /**
+   * Get the amount of keys prefetched so far.
+   *
+   * @return the amount of prefetches.
+   */
+  public long prefetchCount() {
+    return this.prefetchCount.sum();
+  }
+
+  /**
+   * Get the amount of prefetched values read while still memoized.
+   *
+   * @return the amount of prefetch hits.
+   */
+  public long prefetchHitCount() {
+    return this.hitCount.sum();
+  }
+
+  /**
+   * Get the amount of prefetched values discarded, or failed, before being read.
+   *
+   * @return the amount of wasted prefetches.
+   */
+  public long wastedPrefetchCount() {
+    return this.wastedCount.sum();
+  }
+
+  /**
+   * Get the amount of predicted keys not prefetched, as the executor or the prefetch bounds were exhausted.
+   *
+   * @return the amount of dropped prefetches.
+   */
+  public long droppedPrefetchCount() {
+    return this.droppedCount.sum();
+  }
+
+  private void recordRead(final @NonNull K key) {
+    if (this.unread.remove(key)) {
+      if (this.pending.contains(key) || this.delegate.hasMemoized(key)) {
+        this.hitCount.increment();
+      } else {
+        this.wastedCount.increment();
+      }
+    }
+
+    // Predictions are lossy: an access racing another thread's prediction is not recorded.
+    if (this.predictionLock.tryLock()) {
+      try {
+        this.predictor.recordAccess(key, this.prefetch);
+      } finally {
+        this.predictionLock.unlock();
+      }
+    }
+  }
+
+  private void prefetch(final @NonNull K key) {
+    if (this.unread.contains(key) || this.delegate.hasMemoized(key)) {
+      return;
+    }
+    if (this.unread.size() >= this.maximumUnread && !this.sweep()) {
+      this.droppedCount.increment();
+      return;
+    }
+    if (!this.inFlight.tryAcquire()) {
+      this.droppedCount.increment();
+      return;
+    }
+    // The key is pending before it is unread, so a sweep never mistakes a starting prefetch for a discarded one.
+    if (!this.pending.add(key)) {
+      this.inFlight.release();
+      return;
+    }
+    if (!this.unread.add(key)) {
+      this.pending.remove(key);
+      this.inFlight.release();
+      return;
+    }
+
+    try {
+      this.executor.execute(() -> this.evaluatePrefetch(key));
+    } catch (final RejectedExecutionException ex) {
+      this.pending.remove(key);
+      this.unread.remove(key);
+      this.inFlight.release();
+      this.droppedCount.increment();
+      return;
+    }
+    this.prefetchCount.increment();
+  }
+
+  private void evaluatePrefetch(final @NonNull K key) {
+    try {
+      this.delegate.memoized(key);
+    } catch (final RuntimeException ex) {
+      if (this.unread.remove(key)) {
+        this.wastedCount.increment();
+      }
+    } finally {
+      this.pending.remove(key);
+      this.inFlight.release();
+    }
+  }
+
+  /**
+   * Forget the unread prefetched values which have since been discarded.
+   *
+   * @return whether there is room for another prefetch.
+   */
+  private boolean sweep() {
+    if (!this.sweepLock.tryLock()) {
+      return false;
+    }
+
+    try {
+      final Iterator<K> iterator = this.unread.iterator();
+      while (iterator.hasNext()) {
+        final K key = iterator.next();
+        // A prefetch still being evaluated is not memoized yet either, so only count what no longer is.
+        if (!this.pending.contains(key) && !this.delegate.hasMemoized(key) && this.unread.remove(key)) {
+          this.wastedCount.increment();
+        }
+      }
+      return this.unread.size() < this.maximumUnread;
+    } finally {
+      this.sweepLock.unlock();
+    }
+  }
+}
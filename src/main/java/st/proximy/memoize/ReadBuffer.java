@@ -0,0 +1,101 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A lossy, striped buffer recording reads without taking a lock. Reads are dropped when their stripe is full; the
+ * buffer is drained by a single thread at a time while holding the owner's lock.
+ *
+ * @param <E> the type of the recorded elements.
+ */
+final class ReadBuffer<E> {
+  private static final int STRIPE_CAPACITY = 16;
+  private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+  private static final int DRAIN_THRESHOLD = STRIPE_CAPACITY / 2;
+
+  private final @NonNull Stripe<E> @NonNull [] stripes;
+  private final int mask;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  ReadBuffer() {
+    final int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.stripes = new Stripe[count];
+    for (int i = 0; i < count; ++i) {
+      this.stripes[i] = new Stripe<>();
+    }
+    this.mask = count - 1;
+  }
+
+  /**
+   * Record an element in the calling thread's stripe.
+   *
+   * @param element the element to record.
+   * @return whether the stripe should be drained.
+   */
+  boolean offer(final @NonNull E element) {
+    final long id = Thread.currentThread().getId();
+    final Stripe<E> stripe = this.stripes[(int) (id ^ id >>> 16) * 0x9e3779b9 >>> 16 & this.mask];
+    final long head = stripe.writes.get();
+    final long pending = head - stripe.reads;
+    if (pending >= STRIPE_CAPACITY) {
+      return true;
+    }
+
+    if (stripe.writes.compareAndSet(head, head + 1)) {
+      stripe.elements.lazySet((int) head & STRIPE_MASK, element);
+      return pending + 1 >= DRAIN_THRESHOLD;
+    }
+    return false;
+  }
+
+  /**
+   * Drain all recorded elements into the consumer. This must only be called by a single thread at a time.
+   *
+   * @param consumer the consumer of the elements.
+   */
+  void drainTo(final @NonNull Consumer<? super E> consumer) {
+    for (final Stripe<E> stripe : this.stripes) {
+      final long head = stripe.writes.get();
+      long tail = stripe.reads;
+      while (tail < head) {
+        final int index = (int) tail & STRIPE_MASK;
+        final E element = stripe.elements.get(index);
+        if (element == null) {
+          break;
+        }
+
+        stripe.elements.lazySet(index, null);
+        consumer.accept(element);
+        ++tail;
+      }
+      stripe.reads = tail;
+    }
+  }
+
+  private static final class Stripe<E> {
+    private final @NonNull AtomicLong writes = new AtomicLong();
+    private final @NonNull AtomicReferenceArray<E> elements = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+    private volatile long reads = 0;
+  }
+}
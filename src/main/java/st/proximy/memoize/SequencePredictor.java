@@ -0,0 +1,72 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link KeyPredictor} of repeated key sequences, which follows the last known successors of the accessed key.
+ *
+ * @param <K> the type of the keys.
+ */
+final class SequencePredictor<K> implements KeyPredictor<K> {
+  private final @NonNull Map<K, K> successors;
+  private final int distance;
+  private @Nullable K previous;
+
+  SequencePredictor(final int maximumKeys, final int distance) {
+    if (maximumKeys < 1) {
+      throw new IllegalArgumentException("maximumKeys must be positive: " + maximumKeys);
+    }
+    if (distance < 1) {
+      throw new IllegalArgumentException("distance must be positive: " + distance);
+    }
+
+    this.successors = new LinkedHashMap<K, K>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, K> eldest) {
+        return this.size() > maximumKeys;
+      }
+    };
+    this.distance = distance;
+  }
+
+  @Override
+  public void recordAccess(final @NonNull K key, final @NonNull Consumer<? super K> prediction) {
+    if (this.previous != null && !this.previous.equals(key)) {
+      this.successors.put(this.previous, key);
+    }
+    this.previous = key;
+
+    K predicted = key;
+    for (int ahead = 0; ahead < this.distance; ++ahead) {
+      predicted = this.successors.get(predicted);
+      if (predicted == null || predicted.equals(key)) {
+        return;
+      }
+      prediction.accept(predicted);
+    }
+  }
+}
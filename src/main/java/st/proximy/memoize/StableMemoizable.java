@@ -0,0 +1,154 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.returnsreceiver.qual.This;
+
+/**
+ * A thread-safe {@link Memoizable} for process-wide constants, which relinks itself to a constant after evaluation.
+ * <p>
+ * Until a value is memoized, the {@link #invoker() invoker} is linked to {@link #evaluateData()}. Every evaluation
+ * relinks it to a {@link MethodHandles#constant(Class, Object) constant} method handle. When the invoker is held in a
+ * {@code static final} field, the JIT may treat the memoized value as a true constant and fold any branches depending
+ * on it; a later {@link #evaluateData()} deoptimizes the dependent code. {@link #memoized()} itself reads a plain
+ * field, as the JIT cannot fold the invoker held by an instance.
+ * </p>
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class StableMemoizable<T> implements Memoizable<T> {
+  private static final @NonNull MethodType INVOKER_TYPE = MethodType.methodType(Object.class);
+  private static final @NonNull MethodHandle EVALUATE_DATA;
+  private static final @NonNull Object UNSET = new Object();
+
+  static {
+    try {
+      EVALUATE_DATA = MethodHandles.lookup().findVirtual(StableMemoizable.class, "memoizeOnce", INVOKER_TYPE);
+    } catch (final NoSuchMethodException | IllegalAccessException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  private final @NonNull Supplier<T> supplier;
+  private final @NonNull MutableCallSite callSite;
+  private final @NonNull MethodHandle invoker;
+  private volatile @Nullable Object value = UNSET;
+
+  public StableMemoizable(final @NonNull Supplier<T> supplier) {
+    this.supplier = supplier;
+    this.callSite = new MutableCallSite(EVALUATE_DATA.bindTo(this));
+    this.invoker = this.callSite.dynamicInvoker();
+  }
+
+  public StableMemoizable(final T memoizedValue) {
+    this.supplier = () -> memoizedValue;
+    this.callSite = new MutableCallSite(MethodHandles.constant(Object.class, memoizedValue));
+    this.invoker = this.callSite.dynamicInvoker();
+    this.value = memoizedValue;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This relinks the {@link #invoker() invoker} to the newly evaluated value.
+   * </p>
+   */
+  @Override
+  public synchronized T evaluateData() {
+    final Object event = MemoizationEvents.beginEvaluation();
+    final T value;
+    try {
+      value = this.supplier.get();
+    } catch (final Throwable ex) {
+      MemoizationEvents.failEvaluation(event, ex);
+      throw ex;
+    } finally {
+      MemoizationEvents.endEvaluation(event, StableMemoizable.class, this.supplier);
+    }
+    this.callSite.setTarget(MethodHandles.constant(Object.class, value));
+    MutableCallSite.syncAll(new MutableCallSite[]{this.callSite});
+    this.value = value;
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see #invoker()
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T memoized() {
+    final Object current = this.value;
+    if (current == UNSET) {
+      return (T) this.memoizeOnce();
+    }
+
+    return (T) current;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NonNull @This StableMemoizable<T> eager() {
+    this.evaluateData();
+    return this;
+  }
+
+  /**
+   * Get the method handle which returns the memoized value, evaluating it first if there is none memoized yet.
+   * <p>
+   * The handle is of type {@code ()Object}. Store it in a {@code static final} field and call it with
+   * {@code (Object) INVOKER.invokeExact()}, casting the result afterwards, to let the JIT fold the memoized value into
+   * the calling code.
+   * </p>
+   *
+   * @return the invoker of this memoizable.
+   */
+  public @NonNull MethodHandle invoker() {
+    return this.invoker;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.value != UNSET;
+  }
+
+  // Also bound by EVALUATE_DATA.
+  private synchronized Object memoizeOnce() {
+    final Object current = this.value;
+    if (current != UNSET) {
+      return current;
+    }
+
+    return this.evaluateData();
+  }
+}
@@ -0,0 +1,72 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A {@link KeyPredictor} of keys visited with a constant stride.
+ * <p>
+ * When a stride is first confirmed, every key up to the prediction distance is predicted; while it holds, each access
+ * only predicts the one key which newly came within the distance.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ */
+final class StridePredictor<K> implements KeyPredictor<K> {
+  private final @NonNull ToLongFunction<? super K> toLong;
+  private final @NonNull LongFunction<? extends K> fromLong;
+  private final int distance;
+  private boolean hasLast = false;
+  private long last;
+  private long stride;
+  private boolean confirmed = false;
+
+  StridePredictor(final @NonNull ToLongFunction<? super K> toLong, final @NonNull LongFunction<? extends K> fromLong,
+      final int distance) {
+    if (distance < 1) {
+      throw new IllegalArgumentException("distance must be positive: " + distance);
+    }
+
+    this.toLong = toLong;
+    this.fromLong = fromLong;
+    this.distance = distance;
+  }
+
+  @Override
+  public void recordAccess(final @NonNull K key, final @NonNull Consumer<? super K> prediction) {
+    final long position = this.toLong.applyAsLong(key);
+    final long stride = position - this.last;
+    final boolean wasConfirmed = this.confirmed;
+    this.confirmed = this.hasLast && stride != 0 && stride == this.stride;
+    this.hasLast = true;
+    this.last = position;
+    this.stride = stride;
+    if (!this.confirmed) {
+      return;
+    }
+
+    for (int ahead = wasConfirmed ? this.distance : 1; ahead <= this.distance; ++ahead) {
+      prediction.accept(this.fromLong.apply(position + ahead * stride));
+    }
+  }
+}
@@ -0,0 +1,150 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A thread-safe {@link KeyedMemoizable} which puts a small, direct-mapped, per-thread cache in front of a shared
+ * {@link KeyedMemoizable}.
+ * <p>
+ * Each thread only ever writes its own cache, so values read repeatedly by a thread are served without touching memory
+ * written by other threads. Invalidations and re-evaluations through this bump a shared version stamp, which makes
+ * every thread discard its cache on its next read. Values discarded by the shared memoizable itself, such as those
+ * evicted by a {@link BoundedMemoizableFunction}, may still be served from the per-thread caches.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the memoizable values.
+ */
+public final class TieredMemoizableFunction<K, V> implements KeyedMemoizable<K, V> {
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private final @NonNull KeyedMemoizable<K, V> shared;
+  private final @NonNull ThreadLocal<LocalCache> localCache;
+  private final @NonNull AtomicLong version = new AtomicLong();
+  private final int mask;
+
+  public TieredMemoizableFunction(final @NonNull KeyedMemoizable<K, V> shared) {
+    this(shared, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create a tiered memoizable.
+   *
+   * @param shared the shared memoizable, which must be thread-safe.
+   * @param capacity the amount of values each thread caches, rounded up to a power of two.
+   */
+  public TieredMemoizableFunction(final @NonNull KeyedMemoizable<K, V> shared, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+
+    final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.shared = shared;
+    this.mask = size - 1;
+    this.localCache = ThreadLocal.withInitial(() -> new LocalCache(size));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public V evaluateData(final @NonNull K key) {
+    final V value = this.shared.evaluateData(key);
+    final long stamp = this.version.incrementAndGet();
+    final LocalCache cache = this.localCache.get();
+    cache.validate(stamp);
+    cache.put(this.indexOf(key), key, value);
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public V memoized(final @NonNull K key) {
+    final LocalCache cache = this.localCache.get();
+    cache.validate(this.version.get());
+
+    final int index = this.indexOf(key);
+    final Object cachedKey = cache.keys[index];
+    if (cachedKey != null && cachedKey.equals(key)) {
+      return (V) cache.values[index];
+    }
+
+    final V value = this.shared.memoized(key);
+    cache.put(index, key, value);
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasMemoized(final @NonNull K key) {
+    return this.shared.hasMemoized(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This discards the per-thread caches of all threads.
+   * </p>
+   */
+  @Override
+  public void invalidate(final @NonNull K key) {
+    this.shared.invalidate(key);
+    this.version.incrementAndGet();
+    MemoizationEvents.invalidated(TieredMemoizableFunction.class, key);
+  }
+
+  private int indexOf(final @NonNull Object key) {
+    final int hash = key.hashCode() * 0x9e3779b9;
+    return (hash ^ hash >>> 16) & this.mask;
+  }
+
+  private static final class LocalCache {
+    private final @Nullable Object @NonNull [] keys;
+    private final @Nullable Object @NonNull [] values;
+    private long version = 0;
+
+    private LocalCache(final int capacity) {
+      this.keys = new Object[capacity];
+      this.values = new Object[capacity];
+    }
+
+    private void validate(final long currentVersion) {
+      if (this.version != currentVersion) {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, null);
+        this.version = currentVersion;
+      }
+    }
+
+    private void put(final int index, final @NonNull Object key, final @Nullable Object value) {
+      this.keys[index] = key;
+      this.values[index] = value;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Calculates the weight of memoized values, which is used to bound the memory use of a
+ * {@link BoundedMemoizableFunction}.
+ *
+ * <p>
+ * This is a {@link FunctionalInterface} whose functional method is {@link #weigh(Object, Object)}.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+  /**
+   * Get a weigher which weighs every entry as {@code 1}, bounding by the amount of entries.
+   *
+   * @param <K> the type of the keys.
+   * @param <V> the type of the values.
+   * @return the singleton weigher.
+   */
+  static <K, V> @NonNull Weigher<K, V> singleton() {
+    return (key, value) -> 1;
+  }
+
+  /**
+   * Calculates the weight of an entry. The weight must not be negative, and is never recalculated.
+   *
+   * @param key the key of the entry.
+   * @param value the memoized value of the entry.
+   * @return the weight of the entry.
+   */
+  long weigh(@NonNull K key, V value);
+}
@@ -0,0 +1,133 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An {@link EvictionPolicy} implementing W-TinyLFU.
+ * <p>
+ * New keys enter a small LRU window. Keys leaving the window are admitted to the main segment as candidates, and when
+ * a value must be discarded, the oldest candidate is weighed against the least recently used key of the main segment
+ * by their estimated frequencies; the less frequently used one is discarded. The main segment is a segmented LRU: keys
+ * on probation are promoted to the protected segment when used again.
+ * </p>
+ *
+ * @param <K> the type of the keys.
+ */
+final class WindowTinyLfuPolicy<K> implements EvictionPolicy<K> {
+  private static final int WINDOW_PERCENTAGE = 1;
+  private static final int PROTECTED_PERCENTAGE = 80;
+
+  private final @NonNull FrequencySketch sketch;
+  private final @NonNull LinkedHashSet<K> window = new LinkedHashSet<>();
+  private final @NonNull LinkedHashSet<K> probation = new LinkedHashSet<>();
+  private final @NonNull LinkedHashSet<K> protectedSegment = new LinkedHashSet<>();
+  // The keys admitted from the window which are still on probation, oldest first.
+  private final @NonNull LinkedHashSet<K> candidates = new LinkedHashSet<>();
+
+  WindowTinyLfuPolicy(final int expectedSize) {
+    this.sketch = new FrequencySketch(expectedSize);
+  }
+
+  @Override
+  public void recordAccess(final @NonNull K key) {
+    if (this.window.remove(key)) {
+      this.window.add(key);
+    } else if (this.probation.remove(key)) {
+      this.candidates.remove(key);
+      this.protectedSegment.add(key);
+      this.demoteProtected();
+    } else if (this.protectedSegment.remove(key)) {
+      this.protectedSegment.add(key);
+    } else {
+      return;
+    }
+
+    this.sketch.increment(key);
+  }
+
+  @Override
+  public void recordInsertion(final @NonNull K key) {
+    this.sketch.increment(key);
+    this.window.add(key);
+
+    final int maximumWindow = this.maximumWindow();
+    if (this.window.size() > maximumWindow) {
+      final K admitted = first(this.window);
+      this.window.remove(admitted);
+      this.probation.add(admitted);
+      this.candidates.add(admitted);
+      if (this.candidates.size() > maximumWindow) {
+        this.candidates.remove(first(this.candidates));
+      }
+    }
+  }
+
+  @Override
+  public void recordRemoval(final @NonNull K key) {
+    this.candidates.remove(key);
+    if (!this.window.remove(key) && !this.probation.remove(key)) {
+      this.protectedSegment.remove(key);
+    }
+  }
+
+  @Override
+  public @Nullable K selectVictim() {
+    final K candidate = first(this.candidates);
+    if (candidate != null) {
+      this.candidates.remove(candidate);
+      final K victim = first(this.probation);
+      if (candidate.equals(victim) || this.sketch.frequency(candidate) <= this.sketch.frequency(victim)) {
+        return candidate;
+      }
+      return victim;
+    }
+
+    if (!this.probation.isEmpty()) {
+      return first(this.probation);
+    }
+    if (!this.protectedSegment.isEmpty()) {
+      return first(this.protectedSegment);
+    }
+    return first(this.window);
+  }
+
+  private int maximumWindow() {
+    final int size = this.window.size() + this.probation.size() + this.protectedSegment.size();
+    return Math.max(1, size * WINDOW_PERCENTAGE / 100);
+  }
+
+  private void demoteProtected() {
+    final int mainSize = this.probation.size() + this.protectedSegment.size();
+    if (this.protectedSegment.size() > Math.max(1, mainSize * PROTECTED_PERCENTAGE / 100)) {
+      final K demoted = first(this.protectedSegment);
+      this.protectedSegment.remove(demoted);
+      this.probation.add(demoted);
+    }
+  }
+
+  private static <K> @Nullable K first(final @NonNull LinkedHashSet<K> segment) {
+    final Iterator<K> iterator = segment.iterator();
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
@@ -0,0 +1,44 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.function;
+
+import java.util.function.BiFunction;
+
+/**
+ * Represents a function folding an element into a {@code double}-valued accumulator, producing the next accumulator.
+ * This is the {@code double}-accumulating primitive specialization of {@link BiFunction}.
+ *
+ * <p>
+ * This is a {@link FunctionalInterface} whose functional method is {@link #applyAsDouble(double, Object)}.
+ * </p>
+ *
+ * @param <E> the type of the elements.
+ * @see BiFunction
+ */
+@FunctionalInterface
+public interface DoubleFoldFunction<E> {
+  /**
+   * Folds the element into the accumulator.
+   *
+   * @param accumulator the accumulator of the previous elements.
+   * @param element the element to fold.
+   * @return the accumulator including the element.
+   */
+  double applyAsDouble(double accumulator, E element);
+}
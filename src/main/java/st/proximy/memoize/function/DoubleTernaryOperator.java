@@ -0,0 +1,44 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.function;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Represents an operation upon three {@code double}-valued operands and producing a {@code double}-valued result.
+ * This is the three-arity specialization of {@link DoubleBinaryOperator}.
+ *
+ * <p>
+ * This is a {@link FunctionalInterface} whose functional method is {@link #applyAsDouble(double, double, double)}.
+ * </p>
+ *
+ * @see DoubleBinaryOperator
+ */
+@FunctionalInterface
+public interface DoubleTernaryOperator {
+  /**
+   * Applies this operator to the given operands.
+   *
+   * @param first the first operand.
+   * @param second the second operand.
+   * @param third the third operand.
+   * @return the operator result.
+   */
+  double applyAsDouble(double first, double second, double third);
+}
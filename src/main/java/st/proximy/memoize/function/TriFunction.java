@@ -0,0 +1,49 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.function;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Represents a function that accepts three arguments and produces a result. This is the three-arity specialization of
+ * {@link Function}.
+ *
+ * <p>
+ * This is a {@link FunctionalInterface} whose functional method is {@link #apply(Object, Object, Object)}.
+ * </p>
+ *
+ * @param <A> the type of the first argument to the function.
+ * @param <B> the type of the second argument to the function.
+ * @param <C> the type of the third argument to the function.
+ * @param <R> the type of the result of the function.
+ * @see BiFunction
+ */
+@FunctionalInterface
+public interface TriFunction<A, B, C, R> {
+  /**
+   * Applies this function to the given arguments.
+   *
+   * @param first the first function argument.
+   * @param second the second function argument.
+   * @param third the third function argument.
+   * @return the function result.
+   */
+  R apply(A first, B second, C third);
+}
@@ -0,0 +1,99 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.reactive;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import st.proximy.memoize.Memoizable;
+
+/**
+ * A {@link Publisher} of the memoized value of a {@link Memoizable}. Every subscriber receives the
+ * {@link Memoizable#memoized() memoized} value once it requests one, and is then completed.
+ * <p>
+ * The value is read on the thread requesting it, so the first subscriber to request it may evaluate the memoizable.
+ * </p>
+ * <p>
+ * This requires the {@code org.reactivestreams:reactive-streams} library, which is not a transitive dependency.
+ * </p>
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class MemoizablePublisher<T> implements Publisher<T> {
+  private final @NonNull Memoizable<? extends T> memoizable;
+
+  public MemoizablePublisher(final @NonNull Memoizable<? extends T> memoizable) {
+    this.memoizable = memoizable;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void subscribe(final @NonNull Subscriber<? super T> subscriber) {
+    subscriber.onSubscribe(new MemoizedSubscription<>(this.memoizable, subscriber));
+  }
+
+  private static final class MemoizedSubscription<T> implements Subscription {
+    private final @NonNull Memoizable<? extends T> memoizable;
+    private final @NonNull Subscriber<? super T> downstream;
+    private final @NonNull AtomicBoolean done = new AtomicBoolean();
+
+    private MemoizedSubscription(final @NonNull Memoizable<? extends T> memoizable,
+        final @NonNull Subscriber<? super T> downstream) {
+      this.memoizable = memoizable;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void request(final long amount) {
+      if (!this.done.compareAndSet(false, true)) {
+        return;
+      }
+
+      if (amount <= 0) {
+        this.downstream.onError(new IllegalArgumentException("non-positive request amount: " + amount));
+        return;
+      }
+
+      final T value;
+      try {
+        value = this.memoizable.memoized();
+      } catch (final RuntimeException ex) {
+        this.downstream.onError(ex);
+        return;
+      }
+
+      if (value == null) {
+        this.downstream.onError(new NullPointerException("memoized value is null"));
+        return;
+      }
+
+      this.downstream.onNext(value);
+      this.downstream.onComplete();
+    }
+
+    @Override
+    public void cancel() {
+      this.done.set(true);
+    }
+  }
+}
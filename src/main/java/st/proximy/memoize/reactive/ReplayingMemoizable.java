@@ -0,0 +1,376 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.reactive;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import st.proximy.memoize.Memoizable;
+
+/**
+ * A thread-safe {@link Memoizable} of the last value emitted by a source {@link Publisher}, which is itself a
+ * {@link Publisher} replaying that value to any amount of subscribers.
+ * <p>
+ * The source is subscribed to once, when this is first subscribed to or read, and is only subscribed to anew after
+ * {@link #invalidate()} or {@link #evaluateData()}. Each subscriber receives the last value once it requests one, and
+ * every later value as it is emitted. A subscriber that has no outstanding demand when a value is emitted receives only
+ * the latest value once it requests more, so slow subscribers never hold back the source nor each other.
+ * </p>
+ * <p>
+ * This requires the {@code org.reactivestreams:reactive-streams} library, which is not a transitive dependency.
+ * </p>
+ *
+ * @param <T> the type of the memoizable value.
+ */
+public final class ReplayingMemoizable<T> implements Memoizable<T>, Publisher<T> {
+  private final @NonNull Publisher<? extends T> source;
+  private final @NonNull Set<ReplaySubscription<T>> subscribers = ConcurrentHashMap.newKeySet();
+  private volatile @Nullable SourceSubscriber<T> connection;
+  private volatile @Nullable Signal<T> last;
+  private volatile @NonNull CompletableFuture<T> first = new CompletableFuture<>();
+  private volatile @Nullable Throwable error;
+  private volatile boolean done = false;
+  private long sequence = 0;
+
+  public ReplayingMemoizable(final @NonNull Publisher<? extends T> source) {
+    this.source = source;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This subscribes to the source anew and blocks until it emits its first value.
+   * </p>
+   *
+   * @throws NoSuchElementException if the source completes without emitting any value.
+   */
+  @Override
+  public T evaluateData() {
+    this.invalidate();
+    return this.memoized();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This blocks until the source has emitted its first value.
+   * </p>
+   *
+   * @throws NoSuchElementException if the source completes without emitting any value.
+   */
+  @Override
+  public T memoized() {
+    final Signal<T> signal = this.last;
+    if (signal != null) {
+      return signal.value;
+    }
+
+    this.connect();
+    final T first;
+    try {
+      first = this.first.join();
+    } catch (final CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+
+    // The source may have emitted more values since its first one.
+    final Signal<T> current = this.last;
+    return current != null ? current.value : first;
+  }
+
+  /**
+   * Get whether there is currently a memoized value within this.
+   *
+   * @return whether there is a memoized value.
+   */
+  public boolean hasMemoized() {
+    return this.last != null;
+  }
+
+  /**
+   * Cancel the subscription to the source and discard the memoized value. Current subscribers stay subscribed, and
+   * receive the values of the new subscription to the source, which is made immediately if there are any subscribers,
+   * or lazily otherwise.
+   */
+  public void invalidate() {
+    final SourceSubscriber<T> previous;
+    synchronized (this) {
+      previous = this.connection;
+      this.connection = null;
+      this.last = null;
+      this.error = null;
+      this.done = false;
+      if (this.first.isDone()) {
+        this.first = new CompletableFuture<>();
+      }
+    }
+
+    if (previous != null) {
+      previous.cancel();
+    }
+    if (!this.subscribers.isEmpty()) {
+      this.connect();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void subscribe(final @NonNull Subscriber<? super T> subscriber) {
+    final ReplaySubscription<T> subscription = new ReplaySubscription<>(this, subscriber);
+    // The subscription is only reachable by the source once the subscriber has it, so no signal precedes it.
+    subscriber.onSubscribe(subscription);
+    this.subscribers.add(subscription);
+    if (subscription.cancelled) {
+      this.subscribers.remove(subscription);
+      return;
+    }
+
+    final Signal<T> signal = this.last;
+    if (signal != null) {
+      subscription.offer(signal);
+    }
+    if (this.done) {
+      subscription.terminate(this.error);
+    } else {
+      this.connect();
+    }
+  }
+
+  private void connect() {
+    final SourceSubscriber<T> subscriber;
+    synchronized (this) {
+      if (this.connection != null) {
+        return;
+      }
+      subscriber = new SourceSubscriber<>(this);
+      this.connection = subscriber;
+    }
+
+    this.source.subscribe(subscriber);
+  }
+
+  private void onNext(final @NonNull SourceSubscriber<T> from, final T value) {
+    final Signal<T> signal;
+    final CompletableFuture<T> future;
+    synchronized (this) {
+      if (this.connection != from) {
+        return;
+      }
+      signal = new Signal<>(value, ++this.sequence);
+      this.last = signal;
+      future = this.first;
+    }
+
+    future.complete(value);
+    for (final ReplaySubscription<T> subscription : this.subscribers) {
+      subscription.offer(signal);
+    }
+  }
+
+  private void onTerminate(final @NonNull SourceSubscriber<T> from, final @Nullable Throwable throwable) {
+    final CompletableFuture<T> future;
+    synchronized (this) {
+      if (this.connection != from) {
+        return;
+      }
+      this.error = throwable;
+      this.done = true;
+      future = this.first;
+    }
+
+    future.completeExceptionally(throwable != null ? throwable
+        : new NoSuchElementException("source completed without emitting a value"));
+    for (final ReplaySubscription<T> subscription : this.subscribers) {
+      subscription.terminate(throwable);
+    }
+  }
+
+  private static final class Signal<T> {
+    private final T value;
+    private final long sequence;
+
+    private Signal(final T value, final long sequence) {
+      this.value = value;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final class SourceSubscriber<T> implements Subscriber<T> {
+    private final @NonNull ReplayingMemoizable<T> parent;
+    private @Nullable Subscription upstream;
+    private boolean cancelled = false;
+
+    private SourceSubscriber(final @NonNull ReplayingMemoizable<T> parent) {
+      this.parent = parent;
+    }
+
+    @Override
+    public void onSubscribe(final @NonNull Subscription subscription) {
+      synchronized (this) {
+        if (this.upstream != null || this.cancelled) {
+          subscription.cancel();
+          return;
+        }
+        this.upstream = subscription;
+      }
+
+      // Only the latest value is kept, so there is no need to hold back the source.
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(final T value) {
+      this.parent.onNext(this, value);
+    }
+
+    @Override
+    public void onError(final @NonNull Throwable throwable) {
+      this.parent.onTerminate(this, throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      this.parent.onTerminate(this, null);
+    }
+
+    private void cancel() {
+      final Subscription subscription;
+      synchronized (this) {
+        this.cancelled = true;
+        subscription = this.upstream;
+      }
+
+      if (subscription != null) {
+        subscription.cancel();
+      }
+    }
+  }
+
+  private static final class ReplaySubscription<T> implements Subscription {
+    private final @NonNull ReplayingMemoizable<T> parent;
+    private final @NonNull Subscriber<? super T> downstream;
+    private final @NonNull AtomicLong requested = new AtomicLong();
+    private final @NonNull AtomicInteger workInProgress = new AtomicInteger();
+    private volatile @Nullable Signal<T> latest;
+    private volatile boolean terminated = false;
+    private volatile @Nullable Throwable error;
+    private volatile boolean cancelled = false;
+    private long delivered = 0;
+
+    private ReplaySubscription(final @NonNull ReplayingMemoizable<T> parent,
+        final @NonNull Subscriber<? super T> downstream) {
+      this.parent = parent;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void request(final long amount) {
+      if (amount <= 0) {
+        this.terminate(new IllegalArgumentException("non-positive request amount: " + amount));
+        return;
+      }
+
+      for (;;) {
+        final long current = this.requested.get();
+        final long next = current + amount < 0 ? Long.MAX_VALUE : current + amount;
+        if (current == Long.MAX_VALUE || this.requested.compareAndSet(current, next)) {
+          break;
+        }
+      }
+      this.drain();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      this.parent.subscribers.remove(this);
+    }
+
+    private void offer(final @NonNull Signal<T> signal) {
+      synchronized (this) {
+        final Signal<T> current = this.latest;
+        if (current != null && current.sequence >= signal.sequence) {
+          return;
+        }
+        this.latest = signal;
+      }
+      this.drain();
+    }
+
+    private void terminate(final @Nullable Throwable throwable) {
+      this.error = throwable;
+      this.terminated = true;
+      this.drain();
+    }
+
+    private void drain() {
+      if (this.workInProgress.getAndIncrement() != 0) {
+        return;
+      }
+
+      int missed = 1;
+      for (;;) {
+        if (this.cancelled) {
+          return;
+        }
+
+        final Signal<T> signal = this.latest;
+        final boolean pending = signal != null && signal.sequence > this.delivered;
+        final Throwable throwable = this.error;
+        if (this.terminated && (throwable != null || !pending)) {
+          this.cancel();
+          if (throwable != null) {
+            this.downstream.onError(throwable);
+          } else {
+            this.downstream.onComplete();
+          }
+          return;
+        }
+
+        if (pending && this.requested.get() > 0) {
+          this.delivered = signal.sequence;
+          if (this.requested.get() != Long.MAX_VALUE) {
+            this.requested.decrementAndGet();
+          }
+          this.downstream.onNext(signal.value);
+          continue;
+        }
+
+        missed = this.workInProgress.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+  }
+}
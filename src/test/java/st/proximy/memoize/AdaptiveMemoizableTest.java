@@ -0,0 +1,108 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveMemoizableTest {
+  private final AtomicInteger evaluations = new AtomicInteger();
+
+  @Test
+  void testRetainsAfterMinimumReads() {
+    final AdaptiveMemoizable<String> memoizable = new AdaptiveMemoizable<>(this::evaluate,
+        new AdaptivePolicy(Duration.ZERO, 2, 1024));
+
+    memoizable.memoized();
+    assertThat(memoizable.hasMemoized()).isFalse();
+    memoizable.memoized();
+    assertThat(memoizable.hasMemoized()).isTrue();
+    memoizable.memoized();
+    assertThat(this.evaluations.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testSkipsCheapValues() {
+    final AdaptiveMemoizable<String> memoizable = new AdaptiveMemoizable<>(this::evaluate,
+        new AdaptivePolicy(Duration.ofDays(1), 0, 1024));
+
+    memoizable.memoized();
+    memoizable.memoized();
+    assertThat(memoizable.hasMemoized()).isFalse();
+    assertThat(this.evaluations.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testFunctionRespectsBudget() {
+    final AdaptivePolicy policy = new AdaptivePolicy(Duration.ZERO, 1, 200);
+    final AdaptiveMemoizableFunction<Integer, String> function = new AdaptiveMemoizableFunction<>(
+        key -> this.evaluate(), policy, value -> 52);
+
+    function.memoized(1);
+    function.memoized(2);
+    function.memoized(3);
+    assertThat(function.hasMemoized(1)).isTrue();
+    assertThat(function.hasMemoized(2)).isTrue();
+    assertThat(function.hasMemoized(3)).as("does not fit the budget").isFalse();
+    assertThat(policy.retainedBytes()).isEqualTo(200);
+
+    function.invalidate(1);
+    assertThat(policy.retainedBytes()).isEqualTo(100);
+  }
+
+  @Test
+  void testFunctionBudgetIsFirstComeFirstServed() {
+    final AdaptivePolicy policy = new AdaptivePolicy(Duration.ZERO, 1, 200);
+    final AdaptiveMemoizableFunction<Integer, String> function = new AdaptiveMemoizableFunction<>(
+        key -> this.evaluate(), policy, value -> 52);
+
+    function.memoized(1);
+    function.memoized(2);
+    for (int read = 0; read < 100; ++read) {
+      function.memoized(3);
+    }
+    assertThat(function.hasMemoized(3)).as("cannot displace a retained value").isFalse();
+    assertThat(function.hasMemoized(1)).isTrue();
+    assertThat(function.hasMemoized(2)).isTrue();
+
+    function.invalidate(1);
+    function.memoized(3);
+    assertThat(function.hasMemoized(3)).as("retained once a share is released").isTrue();
+  }
+
+  @Test
+  void testFunctionForgetsCollidingStatistics() {
+    final AdaptiveMemoizableFunction<Integer, String> function = new AdaptiveMemoizableFunction<>(
+        key -> this.evaluate(), new AdaptivePolicy(Duration.ZERO, 2, 1024), value -> 0, 1);
+
+    function.memoized(1);
+    function.memoized(2);
+    function.memoized(1);
+    assertThat(function.hasMemoized(1)).as("its first read was forgotten").isFalse();
+    function.memoized(1);
+    assertThat(function.hasMemoized(1)).isTrue();
+  }
+
+  private String evaluate() {
+    return "value " + this.evaluations.incrementAndGet();
+  }
+}
@@ -0,0 +1,152 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class BatchingMemoizableFunctionTest {
+  private final List<Set<Integer>> batches = new ArrayList<>();
+  private final BatchingMemoizableFunction<Integer, String> function =
+      new BatchingMemoizableFunction<>(this::load, 3, Duration.ofMillis(10));
+
+  @Test
+  void testBatchesMisses() {
+    assertThat(this.function.memoizedAll(Arrays.asList(1, 2, 3, 4, 1)))
+        .containsExactly(entry(1, "1"), entry(2, "2"), entry(3, "3"), entry(4, "4"));
+    assertThat(this.batches).containsExactly(new HashSet<>(Arrays.asList(1, 2, 3)), new HashSet<>(Arrays.asList(4)));
+  }
+
+  @Test
+  void testMemoizesLoadedValues() {
+    this.function.memoizedAll(Arrays.asList(1, 2));
+
+    assertThat(this.function.memoizable(2).memoized()).isEqualTo("2");
+    assertThat(this.batches).hasSize(1);
+  }
+
+  @Test
+  void testMissingValueFails() {
+    assertThatThrownBy(() -> this.function.memoized(-1)).isInstanceOf(IllegalStateException.class);
+    assertThat(this.function.hasMemoized(-1)).isFalse();
+  }
+
+  @Test
+  void testUndeclaredCheckedFailureFailsBatch() {
+    final BatchingMemoizableFunction<Integer, String> failing = new BatchingMemoizableFunction<>(keys -> {
+      if (this.batches.isEmpty()) {
+        this.batches.add(new HashSet<>(keys));
+        throw sneakyThrow(new IOException("first"));
+      }
+      return this.load(keys);
+    }, 3, Duration.ofMillis(10));
+
+    assertThatThrownBy(() -> failing.memoizedAll(Arrays.asList(1, 2)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasCauseInstanceOf(IOException.class);
+    assertThat(failing.hasMemoized(1)).isFalse();
+    assertThat(failing.memoizedAll(Arrays.asList(1, 2))).containsExactly(entry(1, "1"), entry(2, "2"));
+    assertThat(this.batches).hasSize(2);
+  }
+
+  @Test
+  void testNullValuesFailBatch() {
+    final BatchingMemoizableFunction<Integer, String> failing = new BatchingMemoizableFunction<>(keys -> {
+      if (this.batches.isEmpty()) {
+        this.batches.add(new HashSet<>(keys));
+        return null;
+      }
+      return this.load(keys);
+    }, 3, Duration.ofMillis(10));
+
+    assertThatThrownBy(() -> failing.memoizedAll(Arrays.asList(1, 2))).isInstanceOf(IllegalStateException.class);
+    assertThat(failing.hasMemoized(1)).isFalse();
+    assertThat(failing.memoizedAll(Arrays.asList(1, 2))).containsExactly(entry(1, "1"), entry(2, "2"));
+  }
+
+  @Test
+  void testThrowingValuesFailBatch() {
+    final BatchingMemoizableFunction<Integer, String> failing = new BatchingMemoizableFunction<>(keys -> {
+      final Map<Integer, String> values = this.load(keys);
+      if (this.batches.size() > 1) {
+        return values;
+      }
+      return new HashMap<Integer, String>(values) {
+        @Override
+        public String get(final Object key) {
+          if (Integer.valueOf(2).equals(key)) {
+            throw new IllegalArgumentException("broken");
+          }
+          return super.get(key);
+        }
+      };
+    }, 3, Duration.ofMillis(10));
+
+    final Map<Integer, String> values = new HashMap<>();
+    assertThatThrownBy(() -> values.putAll(failing.memoizedAll(Arrays.asList(1, 2, 3))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(failing.hasMemoized(1)).isTrue();
+    assertThat(failing.hasMemoized(2)).isFalse();
+    assertThat(failing.hasMemoized(3)).isFalse();
+    assertThat(failing.memoized(2)).isEqualTo("2");
+  }
+
+  @Test
+  void testRejectedKeyStillDispatchesBatch() throws InterruptedException {
+    assertThatThrownBy(() -> this.function.memoizedAll(Arrays.asList(1, null)))
+        .isInstanceOf(NullPointerException.class);
+
+    final AtomicReference<String> value = new AtomicReference<>();
+    final Thread reader = new Thread(() -> value.set(this.function.memoized(2)));
+    reader.setDaemon(true);
+    reader.start();
+    reader.join(5_000);
+    assertThat(value.get()).isEqualTo("2");
+    assertThat(this.function.hasMemoized(1)).isTrue();
+  }
+
+  private Map<Integer, String> load(final Set<Integer> keys) {
+    this.batches.add(new HashSet<>(keys));
+    final Map<Integer, String> values = new HashMap<>();
+    for (final int key : keys) {
+      if (key >= 0) {
+        values.put(key, Integer.toString(key));
+      }
+    }
+    return values;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> RuntimeException sneakyThrow(final Throwable throwable) throws E {
+    throw (E) throwable;
+  }
+}
@@ -0,0 +1,110 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BoundedMemoizableFunctionTest {
+  private final AtomicInteger count = new AtomicInteger();
+
+  @Test
+  void testLruEviction() {
+    final BoundedMemoizableFunction<Integer, String> function = new BoundedMemoizableFunction<>(
+        this::evaluate, 2, Weigher.singleton(), EvictionPolicy.lru());
+
+    function.memoized(1);
+    function.memoized(2);
+    function.memoized(1);
+    function.memoized(3);
+
+    assertThat(function.size()).isEqualTo(2);
+    assertThat(function.hasMemoized(2)).as("least recently used").isFalse();
+    assertThat(function.hasMemoized(1)).isTrue();
+    assertThat(function.hasMemoized(3)).isTrue();
+  }
+
+  @Test
+  void testWeightBound() {
+    final BoundedMemoizableFunction<Integer, String> function = new BoundedMemoizableFunction<>(
+        this::evaluate, 10, (key, value) -> key, EvictionPolicy.lru());
+
+    function.memoized(4);
+    function.memoized(5);
+    assertThat(function.weightedSize()).isEqualTo(9);
+    function.memoized(6);
+    assertThat(function.weightedSize()).isLessThanOrEqualTo(10);
+    assertThat(function.hasMemoized(6)).isTrue();
+  }
+
+  @Test
+  void testEvictionReevaluates() {
+    final BoundedMemoizableFunction<Integer, String> function = new BoundedMemoizableFunction<>(this::evaluate, 1);
+    final Memoizable<String> memoizable = function.memoizable(1);
+
+    assertThat(memoizable.memoized()).isEqualTo("1");
+    function.memoized(2);
+    assertThat(memoizable.memoized()).isEqualTo("1");
+    assertThat(this.count.get()).as("evaluated anew after eviction").isEqualTo(3);
+  }
+
+  @Test
+  void testFrequentKeySurvivesScan() {
+    assertThat(this.survivesScan(EvictionPolicy.windowTinyLfu(100))).as("W-TinyLFU").isTrue();
+    assertThat(this.survivesScan(EvictionPolicy.lru())).as("LRU").isFalse();
+  }
+
+  @Test
+  void testDemotedKeyIsNoCandidate() {
+    final EvictionPolicy<Integer> policy = EvictionPolicy.windowTinyLfu(200);
+    // A window of two keys; 196 and 197 are the last keys admitted to probation.
+    for (int key = 0; key < 200; ++key) {
+      policy.recordInsertion(key);
+    }
+    policy.recordAccess(196);
+    // Promoting 0 to 157 outgrows the protected segment, demoting 196 to probation again.
+    for (int key = 0; key < 158; ++key) {
+      policy.recordAccess(key);
+    }
+
+    assertThat(policy.selectVictim()).as("the oldest candidate still on probation").isEqualTo(197);
+  }
+
+  private boolean survivesScan(final EvictionPolicy<Integer> policy) {
+    final BoundedMemoizableFunction<Integer, String> function = new BoundedMemoizableFunction<>(
+        this::evaluate, 100, Weigher.singleton(), policy);
+    for (int key = 0; key < 100; ++key) {
+      function.memoized(key);
+    }
+    for (int read = 0; read < 64; ++read) {
+      function.memoized(0);
+    }
+    for (int key = 100; key < 1100; ++key) {
+      function.memoized(key);
+    }
+    return function.hasMemoized(0);
+  }
+
+  private String evaluate(final int key) {
+    this.count.incrementAndGet();
+    return Integer.toString(key);
+  }
+}
@@ -0,0 +1,75 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BudgetedMemoizableTest {
+  private final MemoBudget budget = new MemoBudget(100);
+  private int evaluations = 0;
+
+  @Test
+  void testMemoizesWithinBudget() {
+    final BudgetedMemoizable<String> memoizable = this.sized(40);
+
+    assertThat(memoizable.memoized()).isEqualTo(memoizable.memoized());
+    assertThat(this.evaluations).isEqualTo(1);
+    assertThat(this.budget.retainedBytes()).isEqualTo(40);
+  }
+
+  @Test
+  void testDiscardsToFitBudget() {
+    final BudgetedMemoizable<String> first = this.sized(60).eager();
+    final BudgetedMemoizable<String> second = this.sized(60).eager();
+
+    assertThat(first.hasMemoized()).isFalse();
+    assertThat(second.hasMemoized()).isTrue();
+    assertThat(this.budget.retainedBytes()).isEqualTo(60);
+
+    first.memoized();
+    assertThat(this.evaluations).as("discarded value evaluated anew").isEqualTo(3);
+  }
+
+  @Test
+  void testOversizedValueIsNotMemoized() {
+    final BudgetedMemoizable<String> memoizable = this.sized(101);
+
+    memoizable.memoized();
+    assertThat(memoizable.hasMemoized()).isFalse();
+    assertThat(this.budget.retainedBytes()).isZero();
+  }
+
+  @Test
+  void testInvalidateReleasesBudget() {
+    final BudgetedMemoizable<String> memoizable = this.sized(40).eager();
+
+    memoizable.invalidate();
+    assertThat(memoizable.hasMemoized()).isFalse();
+    assertThat(this.budget.retainedBytes()).isZero();
+  }
+
+  private BudgetedMemoizable<String> sized(final long size) {
+    return new BudgetedMemoizable<>(this.budget, () -> {
+      ++this.evaluations;
+      return "value";
+    }, value -> size);
+  }
+}
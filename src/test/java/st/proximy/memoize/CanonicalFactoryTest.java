@@ -0,0 +1,144 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CanonicalFactoryTest {
+  private final AtomicInteger constructions = new AtomicInteger();
+
+  @Test
+  void testInternerReturnsFirstInstance() {
+    final Interner<String> interner = new Interner<>();
+    final String first = new String("value");
+    final String second = new String("value");
+
+    assertThat(interner.intern(first)).isSameAs(first);
+    assertThat(interner.intern(second)).isSameAs(first);
+    assertThat(interner.size()).isOne();
+  }
+
+  @Test
+  void testFactoryConstructsOnce() {
+    final CanonicalFactory<String, StringBuilder> factory = new CanonicalFactory<>(this::construct);
+
+    final StringBuilder instance = factory.canonical("a");
+    assertThat(factory.canonical(new String("a"))).isSameAs(instance);
+    assertThat(factory.canonical("b")).isNotSameAs(instance);
+    assertThat(this.constructions.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testFactoryConstructsNestedInstances() {
+    final Holder<CanonicalFactory<List<String>, Node>> holder = new Holder<>();
+    holder.factory = new CanonicalFactory<>(parts -> new Node(
+        parts.size() == 1 ? null : holder.factory.canonical(parts.subList(1, parts.size()))));
+
+    final Node tuple = holder.factory.canonical(Arrays.asList("a", "b", "c"));
+    assertThat(holder.factory.canonical(Arrays.asList("a", "b", "c"))).isSameAs(tuple);
+    assertThat(tuple.tail).isSameAs(holder.factory.canonical(Arrays.asList("b", "c")));
+    assertThat(holder.factory.size()).isEqualTo(3);
+  }
+
+  @Test
+  void testFactoryConstructsAnewAfterCollection() {
+    final CanonicalFactory<String, StringBuilder> factory = new CanonicalFactory<>(this::construct);
+    final WeakReference<StringBuilder> reference = new WeakReference<>(factory.canonical("a"));
+
+    awaitCollection(reference);
+    factory.canonical("a");
+    assertThat(this.constructions.get()).isEqualTo(2);
+    assertThat(factory.size()).isOne();
+  }
+
+  @Test
+  void testLongFactoryConstructsOnce() {
+    final LongCanonicalFactory<Long> factory = new LongCanonicalFactory<>(this::constructLong);
+    final Long[] instances = new Long[1000];
+
+    for (int i = 0; i < instances.length; ++i) {
+      instances[i] = factory.canonical(i * 31L);
+    }
+    for (int i = 0; i < instances.length; ++i) {
+      assertThat(factory.canonical(i * 31L)).isSameAs(instances[i]);
+    }
+    assertThat(this.constructions.get()).isEqualTo(1000);
+  }
+
+  @Test
+  void testLongFactoryConstructsNestedInstances() {
+    final Holder<LongCanonicalFactory<Node>> holder = new Holder<>();
+    holder.factory = new LongCanonicalFactory<>(
+        input -> new Node(input == 0 ? null : holder.factory.canonical(input - 1)));
+
+    final Node chain = holder.factory.canonical(100);
+    Node node = chain;
+    for (int input = 100; input >= 0; --input) {
+      assertThat(holder.factory.canonical(input)).isSameAs(node);
+      node = node.tail;
+    }
+  }
+
+  @Test
+  void testLongFactoryConstructsAnewAfterCollection() {
+    final LongCanonicalFactory<Long> factory = new LongCanonicalFactory<>(this::constructLong);
+    final WeakReference<Long> reference = new WeakReference<>(factory.canonical(1L << 40));
+
+    awaitCollection(reference);
+    factory.canonical(1L << 40);
+    assertThat(this.constructions.get()).isEqualTo(2);
+  }
+
+  private StringBuilder construct(final String input) {
+    this.constructions.incrementAndGet();
+    return new StringBuilder(input);
+  }
+
+  @SuppressWarnings({"UnnecessaryBoxing", "deprecation"})
+  private Long constructLong(final long input) {
+    this.constructions.incrementAndGet();
+    return new Long(input);
+  }
+
+  private static void awaitCollection(final WeakReference<?> reference) {
+    for (int attempt = 0; attempt < 100 && reference.get() != null; ++attempt) {
+      System.gc();
+      Thread.yield();
+    }
+    assertThat(reference.get()).as("collected").isNull();
+  }
+
+  private static final class Node {
+    private final Node tail;
+
+    private Node(final Node tail) {
+      this.tail = tail;
+    }
+  }
+
+  private static final class Holder<F> {
+    private F factory;
+  }
+}
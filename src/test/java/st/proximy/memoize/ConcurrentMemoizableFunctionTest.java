@@ -0,0 +1,187 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMemoizableFunctionTest {
+  private final AtomicInteger evaluations = new AtomicInteger();
+
+  @Test
+  void testConcurrentReadersEvaluateOnce() throws InterruptedException {
+    final ConcurrentMemoizableFunction<Integer, String> function = new ConcurrentMemoizableFunction<>(key -> {
+      this.evaluations.incrementAndGet();
+      sleep(50);
+      return key + " #" + this.evaluations.get();
+    });
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    final AtomicInteger mismatches = new AtomicInteger();
+    for (int i = 0; i < 16; ++i) {
+      threads.add(startThread(() -> {
+        awaitLatch(start);
+        if (!"1 #1".equals(function.memoized(1))) {
+          mismatches.incrementAndGet();
+        }
+      }));
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(mismatches.get()).isZero();
+    assertThat(this.evaluations.get()).isOne();
+    assertThat(function.hasMemoized(1)).isTrue();
+  }
+
+  @Test
+  void testFailureIsNotMemoized() {
+    final ConcurrentMemoizableFunction<Integer, String> function = new ConcurrentMemoizableFunction<>(key -> {
+      if (this.evaluations.incrementAndGet() == 1) {
+        throw new IllegalArgumentException("first");
+      }
+      return key + " #" + this.evaluations.get();
+    });
+
+    assertThatThrownBy(() -> function.memoized(1)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(function.hasMemoized(1)).isFalse();
+    assertThat(function.memoized(1)).isEqualTo("1 #2");
+    assertThat(function.memoized(1)).isEqualTo("1 #2");
+    assertThat(this.evaluations.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testUndeclaredCheckedFailureReleasesWaiters() throws InterruptedException {
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ConcurrentMemoizableFunction<Integer, String> function = new ConcurrentMemoizableFunction<>(key -> {
+      if (this.evaluations.incrementAndGet() == 1) {
+        entered.countDown();
+        awaitLatch(release);
+        throw sneakyThrow(new IOException("first"));
+      }
+      return key + " #" + this.evaluations.get();
+    });
+
+    final AtomicReference<Throwable> evaluatorFailure = new AtomicReference<>();
+    final Thread evaluator = startThread(() -> {
+      try {
+        function.memoized(1);
+      } catch (final Throwable ex) {
+        evaluatorFailure.set(ex);
+      }
+    });
+    awaitLatch(entered);
+
+    final AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+    final Thread waiter = startThread(() -> {
+      try {
+        function.memoized(1);
+      } catch (final Throwable ex) {
+        waiterFailure.set(ex);
+      }
+    });
+    while (waiter.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+    release.countDown();
+    evaluator.join(10_000);
+    waiter.join(10_000);
+
+    assertThat(waiter.isAlive()).isFalse();
+    assertThat(evaluatorFailure.get()).isInstanceOf(IOException.class);
+    assertThat(waiterFailure.get()).isInstanceOf(IllegalStateException.class).hasCauseInstanceOf(IOException.class);
+    assertThat(function.memoized(1)).isEqualTo("1 #2");
+  }
+
+  @Test
+  void testUndeclaredCheckedFailureIsNotMemoizedByPrimitiveFunctions() {
+    final ConcurrentMemoizableToIntFunction<Integer> function = new ConcurrentMemoizableToIntFunction<>(key -> {
+      if (this.evaluations.incrementAndGet() == 1) {
+        throw sneakyThrow(new IOException("first"));
+      }
+      return key * 10;
+    });
+
+    assertThatThrownBy(() -> function.memoizedAsInteger(1)).isInstanceOf(IOException.class);
+    assertThat(function.hasMemoized(1)).isFalse();
+    assertThat(function.memoizedAsInteger(1)).isEqualTo(10);
+  }
+
+  @Test
+  void testParallelStreamCollectors() {
+    final int sum = IntStream.range(0, 10_000).parallel().map(i -> i % 10).boxed()
+        .collect(MemoizableCollectors.summingInt(i -> {
+          this.evaluations.incrementAndGet();
+          return i * 2;
+        }));
+    assertThat(sum).isEqualTo(90_000);
+    assertThat(this.evaluations.get()).isEqualTo(10);
+
+    final AtomicInteger mappings = new AtomicInteger();
+    final Set<String> mapped = IntStream.range(0, 10_000).parallel().map(i -> i % 3).boxed()
+        .collect(MemoizableCollectors.mapping(i -> {
+          mappings.incrementAndGet();
+          return "#" + i;
+        }, Collectors.toSet()));
+    assertThat(mapped).containsExactlyInAnyOrder("#0", "#1", "#2");
+    assertThat(mappings.get()).isEqualTo(3);
+  }
+
+  private static Thread startThread(final Runnable runnable) {
+    final Thread thread = new Thread(runnable);
+    thread.start();
+    return thread;
+  }
+
+  private static void awaitLatch(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> RuntimeException sneakyThrow(final Throwable throwable) throws E {
+    throw (E) throwable;
+  }
+}
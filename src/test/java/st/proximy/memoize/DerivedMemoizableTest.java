@@ -0,0 +1,99 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DerivedMemoizableTest {
+  private int evaluations = 0;
+  private int mappings = 0;
+
+  @Test
+  void testMapIsLazyAndEvaluatesOnce() {
+    final MemoizableInteger source = new MemoizableInteger(this::evaluateInt);
+    final MemoizableLong mapped = source.mapToLong(this::widen);
+
+    assertThat(this.evaluations).as("lazy").isZero();
+    assertThat(mapped.memoizedAsLong()).isEqualTo(42L << 32);
+    assertThat(mapped.memoizedAsLong()).isEqualTo(42L << 32);
+    assertThat(source.memoizedAsInteger()).isEqualTo(42);
+    assertThat(this.evaluations).isOne();
+    assertThat(this.mappings).isOne();
+  }
+
+  @Test
+  void testMapChains() {
+    final MemoizableDouble chained = new MemoizableInteger(this::evaluateInt)
+        .map(value -> value + 1)
+        .mapToDouble(value -> value / 2.0)
+        .map(value -> value * 3);
+
+    assertThat(chained.memoizedAsDouble()).isEqualTo(64.5);
+    assertThat(new MemoizableDouble(2.5).mapToObj(value -> "x" + value).memoized()).isEqualTo("x2.5");
+    assertThat(new MemoizableLong(7).mapToInt(value -> (int) value * 2).memoizedAsInteger()).isEqualTo(14);
+  }
+
+  @Test
+  void testCombineEvaluatesEachSourceOnce() {
+    final MemoizableInteger left = new MemoizableInteger(this::evaluateInt);
+    final MemoizableInteger right = new MemoizableInteger(this::evaluateInt);
+    final MemoizableInteger sum = left.combine(right, Integer::sum);
+    final MemoizableInteger product = left.combine(right, (first, second) -> first * second);
+
+    assertThat(this.evaluations).as("lazy").isZero();
+    assertThat(sum.memoizedAsInteger()).isEqualTo(84);
+    assertThat(product.memoizedAsInteger()).isEqualTo(42 * 42);
+    assertThat(this.evaluations).isEqualTo(2);
+  }
+
+  @Test
+  void testCombinesLongsAndDoubles() {
+    final MemoizableLong left = new MemoizableLong(3);
+    final MemoizableLong right = new MemoizableLong(4);
+
+    assertThat(left.combine(right, Math::max).memoizedAsLong()).isEqualTo(4);
+    assertThat(new MemoizableDouble(1.5).combine(new MemoizableDouble(2), Double::sum).memoizedAsDouble())
+        .isEqualTo(3.5);
+  }
+
+  @Test
+  void testNarrowTypesWiden() {
+    final MemoizableByte source = new MemoizableByte(() -> {
+      ++this.evaluations;
+      return (byte) -1;
+    });
+
+    assertThat(source.asMemoizableInteger().map(value -> value & 0xff).memoizedAsInteger()).isEqualTo(255);
+    assertThat(new MemoizableShort((short) 300).asMemoizableInteger().memoizedAsInteger()).isEqualTo(300);
+    assertThat(new MemoizableFloat(0.5f).asMemoizableDouble().memoizedAsDouble()).isEqualTo(0.5);
+    assertThat(this.evaluations).isOne();
+  }
+
+  private int evaluateInt() {
+    ++this.evaluations;
+    return 42;
+  }
+
+  private long widen(final int value) {
+    ++this.mappings;
+    return (long) value << 32;
+  }
+}
@@ -0,0 +1,168 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FileMemoizableTest {
+  private final AtomicInteger parses = new AtomicInteger();
+  private Path file;
+
+  @BeforeEach
+  void createFile() throws IOException {
+    this.file = Files.createTempFile("memoize", ".txt");
+    Files.write(this.file, "first".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  @Test
+  void testParsesOnceWhileUnchanged() {
+    final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, this::parse);
+
+    assertThat(memoizable.memoized()).isEqualTo("first");
+    assertThat(memoizable.memoized()).isEqualTo("first");
+    assertThat(this.parses.get()).isOne();
+  }
+
+  @Test
+  void testParsesAnewWhenSizeChanges() throws IOException {
+    final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, this::parse);
+    memoizable.memoized();
+
+    final FileTime lastModified = Files.getLastModifiedTime(this.file);
+    Files.write(this.file, "second".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(this.file, lastModified);
+
+    assertThat(memoizable.memoized()).isEqualTo("second");
+    assertThat(this.parses.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testParsesAnewWhenModificationTimeChanges() throws IOException {
+    final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, this::parse);
+    memoizable.memoized();
+
+    final FileTime lastModified = Files.getLastModifiedTime(this.file);
+    Files.write(this.file, "final".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(this.file, FileTime.fromMillis(lastModified.toMillis() + 10_000));
+
+    assertThat(memoizable.memoized()).isEqualTo("final");
+    assertThat(this.parses.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testConcurrentReadersParseChangeOnce() throws Exception {
+    final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, buffer -> {
+      sleep(50);
+      return this.parse(buffer);
+    });
+    memoizable.memoized();
+    Files.write(this.file, "second".getBytes(StandardCharsets.UTF_8));
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    final AtomicInteger outdated = new AtomicInteger();
+    for (int i = 0; i < 16; ++i) {
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (!"second".equals(memoizable.memoized())) {
+          outdated.incrementAndGet();
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(outdated.get()).isZero();
+    assertThat(this.parses.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testWatcherNotifiesOfChange() throws Exception {
+    try (FileWatcher watcher = new FileWatcher()) {
+      final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, this::parse, watcher);
+      memoizable.memoized();
+
+      // Neither the size nor the modification time changes, so only the watcher can notice.
+      final FileTime lastModified = Files.getLastModifiedTime(this.file);
+      Files.write(this.file, "fresh".getBytes(StandardCharsets.UTF_8));
+      Files.setLastModifiedTime(this.file, lastModified);
+
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!"fresh".equals(memoizable.memoized()) && System.nanoTime() < deadline) {
+        sleep(10);
+      }
+      assertThat(memoizable.memoized()).isEqualTo("fresh");
+    }
+  }
+
+  @Test
+  void testClosedWatcherFallsBackToChecks() throws IOException {
+    final FileWatcher watcher = new FileWatcher();
+    final FileMemoizable<String> memoizable = new FileMemoizable<>(this.file, this::parse, watcher);
+    memoizable.memoized();
+    watcher.close();
+    assertThat(watcher.isOpen()).isFalse();
+
+    Files.write(this.file, "second".getBytes(StandardCharsets.UTF_8));
+    assertThat(memoizable.memoized()).isEqualTo("second");
+    assertThat(this.parses.get()).isEqualTo(2);
+  }
+
+  private String parse(final ByteBuffer buffer) {
+    this.parses.incrementAndGet();
+    return StandardCharsets.UTF_8.decode(buffer).toString();
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
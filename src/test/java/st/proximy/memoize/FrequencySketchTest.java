@@ -0,0 +1,62 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class FrequencySketchTest {
+  @Test
+  void testIncrement() {
+    final FrequencySketch sketch = new FrequencySketch(16);
+    assertThat(sketch.frequency("key")).isZero();
+
+    sketch.increment("key");
+    sketch.increment("key");
+    sketch.increment("key");
+    assertThat(sketch.frequency("key")).isEqualTo(3);
+  }
+
+  @Test
+  void testSaturation() {
+    final FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 20; ++i) {
+      sketch.increment("key");
+    }
+
+    assertThat(sketch.frequency("key")).isEqualTo(15);
+  }
+
+  @Test
+  void testAging() {
+    final FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 15; ++i) {
+      sketch.increment("hot");
+    }
+
+    // The counters are halved after ten increments per expected key, of which the hot key made fifteen.
+    int increments = 15;
+    while (sketch.frequency("hot") == 15 && increments < 1000) {
+      sketch.increment(increments++);
+    }
+    assertThat(increments).as("increments until aged").isEqualTo(160);
+    assertThat(sketch.frequency("hot")).isEqualTo(7);
+  }
+}
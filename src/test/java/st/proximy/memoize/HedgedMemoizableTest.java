@@ -0,0 +1,216 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HedgedMemoizableTest {
+  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @BeforeEach
+  void warmUp() {
+    // The first evaluation initializes its events, which could delay an attempt past its hedge.
+    new HedgedMemoizable<>(() -> "warm", this.scheduler, HedgingPolicy.fixed(Duration.ofHours(1))).memoized();
+  }
+
+  @AfterEach
+  void shutdown() {
+    this.release.countDown();
+    this.scheduler.shutdownNow();
+  }
+
+  @Test
+  void testHedgeWinsOverSlowAttempt() {
+    final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+      if (this.attempts.incrementAndGet() == 1) {
+        this.awaitRelease();
+        return "first";
+      }
+      return "hedge";
+    }, this.scheduler, HedgingPolicy.fixed(Duration.ofMillis(100)));
+
+    assertThat(memoizable.memoized()).isEqualTo("hedge");
+    assertThat(memoizable.hedgeCount()).isOne();
+    assertThat(memoizable.hedgeWinCount()).isOne();
+
+    this.release.countDown();
+    assertThat(memoizable.memoized()).isEqualTo("hedge");
+  }
+
+  @Test
+  void testFailsOnlyWhenBothAttemptsFail() {
+    final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+      throw new IllegalArgumentException("attempt #" + this.attempts.incrementAndGet());
+    }, this.scheduler, HedgingPolicy.fixed(Duration.ofMillis(1)));
+
+    assertThatThrownBy(memoizable::memoized).isInstanceOf(IllegalArgumentException.class);
+    assertThat(this.attempts.get()).isEqualTo(2);
+    assertThat(memoizable.hasMemoized()).isFalse();
+  }
+
+  @Test
+  void testFailedAttemptIsRetriedByHedge() {
+    final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+      if (this.attempts.incrementAndGet() == 1) {
+        throw new IllegalArgumentException("first");
+      }
+      return "hedge";
+    }, this.scheduler, HedgingPolicy.fixed(Duration.ofMillis(1)));
+
+    assertThat(memoizable.memoized()).isEqualTo("hedge");
+    assertThat(memoizable.hedgeWinCount()).isOne();
+  }
+
+  @Test
+  void testUndeclaredCheckedFailureFailsEvaluation() {
+    final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+      this.attempts.incrementAndGet();
+      throw sneakyThrow(new IOException("failed"));
+    }, this.scheduler, HedgingPolicy.fixed(Duration.ofMillis(1)));
+
+    assertThatThrownBy(() -> memoizable.memoized(Duration.ofSeconds(10), "timed out"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasCauseInstanceOf(IOException.class);
+    assertThat(this.attempts.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testFailsWhenHedgeIsRejectedAfterFailedAttempt() {
+    final CountDownLatch failing = new CountDownLatch(1);
+    final ScheduledExecutorService rejecting = new ScheduledThreadPoolExecutor(1) {
+      @Override
+      public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        if (delay == 0) {
+          return super.schedule(command, delay, unit);
+        }
+
+        // Only reject the hedge once the first attempt has given up.
+        awaitLatch(failing);
+        sleep(100);
+        throw new RejectedExecutionException("shut down");
+      }
+    };
+    try {
+      final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+        this.attempts.incrementAndGet();
+        failing.countDown();
+        throw new IllegalArgumentException("failed");
+      }, rejecting, HedgingPolicy.fixed(Duration.ofMillis(1)));
+
+      assertThatThrownBy(() -> memoizable.memoized(Duration.ofSeconds(10), "timed out"))
+          .isInstanceOf(IllegalArgumentException.class);
+      assertThat(this.attempts.get()).isOne();
+    } finally {
+      rejecting.shutdownNow();
+    }
+  }
+
+  @Test
+  void testDeadlineReturnsFallbackThenValue() {
+    final HedgedMemoizable<String> memoizable = new HedgedMemoizable<>(() -> {
+      this.attempts.incrementAndGet();
+      this.awaitRelease();
+      return "value";
+    }, this.scheduler, HedgingPolicy.fixed(Duration.ofHours(1)));
+
+    assertThat(memoizable.memoized(Duration.ofMillis(10), "fallback")).isEqualTo("fallback");
+    assertThat(memoizable.hasMemoized()).isFalse();
+
+    this.release.countDown();
+    assertThat(memoizable.memoized()).isEqualTo("value");
+    assertThat(memoizable.memoized(Duration.ZERO, "fallback")).isEqualTo("value");
+    assertThat(this.attempts.get()).isOne();
+  }
+
+  @Test
+  void testPercentileDelay() {
+    final HedgingPolicy policy = HedgingPolicy.percentile(50, 16, Duration.ofMillis(5));
+    for (int i = 1; i < 16; ++i) {
+      policy.recordLatency(i * 1_000L);
+    }
+    assertThat(policy.hedgeDelayNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+
+    policy.recordLatency(16_000L);
+    assertThat(policy.hedgeDelayNanos()).isEqualTo(8_000L);
+
+    for (int i = 0; i < 16; ++i) {
+      policy.recordLatency(100L);
+    }
+    assertThat(policy.hedgeDelayNanos()).isEqualTo(100L);
+  }
+
+  @Test
+  void testPercentileBounds() {
+    final HedgingPolicy lowest = HedgingPolicy.percentile(0, 16, Duration.ZERO);
+    final HedgingPolicy highest = HedgingPolicy.percentile(100, 16, Duration.ZERO);
+    for (int i = 1; i <= 16; ++i) {
+      lowest.recordLatency(i);
+      highest.recordLatency(i);
+    }
+
+    assertThat(lowest.hedgeDelayNanos()).isEqualTo(1L);
+    assertThat(highest.hedgeDelayNanos()).isEqualTo(16L);
+    assertThatThrownBy(() -> HedgingPolicy.percentile(101, 16, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HedgingPolicy.percentile(50, 15, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void awaitRelease() {
+    awaitLatch(this.release);
+  }
+
+  private static void awaitLatch(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> RuntimeException sneakyThrow(final Throwable throwable) throws E {
+    throw (E) throwable;
+  }
+}
@@ -0,0 +1,91 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MemoizableFoldTest {
+  private final List<Integer> source = new ArrayList<>(Arrays.asList(1, 2, 3));
+  private int folded = 0;
+
+  @Test
+  void testFoldsOnlyAppended() {
+    final MemoizableLongFold<Integer> sum = new MemoizableLongFold<>(this.source, 0, this::add);
+
+    assertThat(sum.memoizedAsLong()).isEqualTo(6);
+    this.source.add(4);
+    assertThat(sum.memoizedAsLong()).isEqualTo(10);
+    assertThat(this.folded).as("each element folded once").isEqualTo(4);
+  }
+
+  @Test
+  void testDoubleFoldsOnlyAppended() {
+    final MemoizableDoubleFold<Integer> halfSum = new MemoizableDoubleFold<>(this.source, 0, this::addHalf);
+
+    assertThat(halfSum.memoizedAsDouble()).isEqualTo(3.0);
+    this.source.add(4);
+    assertThat(halfSum.memoizedAsDouble()).isEqualTo(5.0);
+    assertThat(this.folded).as("each element folded once").isEqualTo(4);
+  }
+
+  @Test
+  void testLongShrinkingReevaluates() {
+    final MemoizableLongFold<Integer> sum = new MemoizableLongFold<>(this.source, 0, this::add);
+
+    assertThat(sum.memoizedAsLong()).isEqualTo(6);
+    this.source.remove(2);
+    assertThat(sum.memoizedAsLong()).isEqualTo(3);
+    assertThat(this.folded).as("folded anew from the identity").isEqualTo(5);
+  }
+
+  @Test
+  void testDoubleShrinkingReevaluates() {
+    final MemoizableDoubleFold<Integer> halfSum = new MemoizableDoubleFold<>(this.source, 0, this::addHalf);
+
+    assertThat(halfSum.memoizedAsDouble()).isEqualTo(3.0);
+    this.source.remove(2);
+    assertThat(halfSum.memoizedAsDouble()).isEqualTo(1.5);
+    assertThat(this.folded).as("folded anew from the identity").isEqualTo(5);
+  }
+
+  @Test
+  void testShrinkingReevaluates() {
+    final MemoizableFold<Integer, String> joined = new MemoizableFold<>(this.source, () -> "",
+        (accumulator, element) -> accumulator + element);
+
+    assertThat(joined.memoized()).isEqualTo("123");
+    this.source.remove(2);
+    assertThat(joined.memoized()).isEqualTo("12");
+  }
+
+  private long add(final long accumulator, final int element) {
+    ++this.folded;
+    return accumulator + element;
+  }
+
+  private double addHalf(final double accumulator, final int element) {
+    ++this.folded;
+    return accumulator + element / 2.0;
+  }
+}
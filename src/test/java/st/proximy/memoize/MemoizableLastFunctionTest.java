@@ -0,0 +1,128 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MemoizableLastFunctionTest {
+  private final AtomicInteger evaluations = new AtomicInteger();
+
+  @Test
+  void testEqualArgumentIsMemoized() {
+    final MemoizableLastFunction<String, String> function = new MemoizableLastFunction<>(this::evaluate);
+
+    assertThat(function.apply("a")).isEqualTo("a #1");
+    assertThat(function.apply(new String("a"))).isEqualTo("a #1");
+    assertThat(function.apply("b")).isEqualTo("b #2");
+    assertThat(function.apply("a")).isEqualTo("a #3");
+  }
+
+  @Test
+  void testIdentityComparesByIdentity() {
+    final MemoizableLastFunction<String, String> function = MemoizableLastFunction.identity(this::evaluate);
+    final String argument = "a";
+
+    assertThat(function.apply(argument)).isEqualTo("a #1");
+    assertThat(function.apply(argument)).isEqualTo("a #1");
+    assertThat(function.apply(new String(argument))).isEqualTo("a #2");
+  }
+
+  @Test
+  void testNullArgumentIsMemoized() {
+    final MemoizableLastFunction<String, String> function = new MemoizableLastFunction<>(this::evaluate);
+
+    assertThat(function.apply(null)).isEqualTo("null #1");
+    assertThat(function.apply(null)).isEqualTo("null #1");
+    assertThat(function.apply("a")).isEqualTo("a #2");
+    assertThat(function.apply(null)).isEqualTo("null #3");
+  }
+
+  @Test
+  void testInvalidateDiscardsResult() {
+    final MemoizableLastFunction<String, String> function = new MemoizableLastFunction<>(this::evaluate);
+    assertThat(function.hasMemoized()).isFalse();
+
+    function.apply("a");
+    assertThat(function.hasMemoized()).isTrue();
+    function.invalidate();
+    assertThat(function.hasMemoized()).isFalse();
+    assertThat(function.apply("a")).isEqualTo("a #2");
+  }
+
+  @Test
+  void testBiFunctionComparesBothArguments() {
+    final MemoizableLastBiFunction<String, String, String> function =
+        new MemoizableLastBiFunction<>((left, right) -> this.evaluate(left + right));
+
+    assertThat(function.apply("a", null)).isEqualTo("anull #1");
+    assertThat(function.apply(new String("a"), null)).isEqualTo("anull #1");
+    assertThat(function.apply("a", "b")).isEqualTo("ab #2");
+    assertThat(function.apply("b", "b")).isEqualTo("bb #3");
+
+    final MemoizableLastBiFunction<String, String, String> identity =
+        MemoizableLastBiFunction.identity((left, right) -> this.evaluate(left + right));
+    final String argument = "c";
+    assertThat(identity.apply(argument, argument)).isEqualTo("cc #4");
+    assertThat(identity.apply(argument, argument)).isEqualTo("cc #4");
+    assertThat(identity.apply(argument, new String(argument))).isEqualTo("cc #5");
+
+    identity.invalidate();
+    assertThat(identity.hasMemoized()).isFalse();
+  }
+
+  @Test
+  void testPrimitiveFunctionsCompareValues() {
+    final MemoizableLastIntFunction<String> intFunction =
+        new MemoizableLastIntFunction<>(input -> this.evaluate(Integer.toString(input)));
+    assertThat(intFunction.apply(1)).isEqualTo("1 #1");
+    assertThat(intFunction.apply(1)).isEqualTo("1 #1");
+    assertThat(intFunction.apply(2)).isEqualTo("2 #2");
+
+    final MemoizableLastLongFunction<String> longFunction =
+        new MemoizableLastLongFunction<>(input -> this.evaluate(Long.toString(input)));
+    assertThat(longFunction.apply(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE + " #3");
+    assertThat(longFunction.apply(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE + " #3");
+    longFunction.invalidate();
+    assertThat(longFunction.hasMemoized()).isFalse();
+    assertThat(longFunction.apply(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE + " #4");
+  }
+
+  @Test
+  void testDoubleFunctionMatchesNanAndDistinguishesZeroes() {
+    final MemoizableLastDoubleFunction<String> function =
+        new MemoizableLastDoubleFunction<>(input -> this.evaluate(Double.toString(input)));
+
+    assertThat(function.apply(Double.NaN)).isEqualTo("NaN #1");
+    assertThat(function.apply(Double.NaN)).isEqualTo("NaN #1");
+    assertThat(function.apply(0.0)).isEqualTo("0.0 #2");
+    assertThat(function.apply(-0.0)).isEqualTo("-0.0 #3");
+    assertThat(function.apply(-0.0)).isEqualTo("-0.0 #3");
+
+    function.invalidate();
+    assertThat(function.hasMemoized()).isFalse();
+    assertThat(function.apply(-0.0)).isEqualTo("-0.0 #4");
+  }
+
+  private String evaluate(final String input) {
+    return input + " #" + this.evaluations.incrementAndGet();
+  }
+}
@@ -0,0 +1,135 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class MemoizationEventsTest {
+  private static final String EVALUATION = "st.proximy.memoize.Evaluation";
+  private static final String INVALIDATION = "st.proximy.memoize.Invalidation";
+
+  @Test
+  void testAvailabilityFollowsEventClass() {
+    assertThat(MemoizationEvents.isAvailable()).isTrue();
+    assertThat(MemoizationEvents.isAvailable("st.proximy.memoize.MissingEvent")).isFalse();
+  }
+
+  @Test
+  void testRecordsEvaluationsAboveThreshold() throws IOException {
+    new MemoizableObject<>(() -> "warm").memoized();
+
+    final List<RecordedEvent> events = record(() -> {
+      new MemoizableObject<>(() -> "fast").memoized();
+      new MemoizableObject<>(() -> {
+        sleep(20);
+        return "slow";
+      }).memoized();
+    });
+
+    final List<RecordedEvent> evaluations = named(events, EVALUATION);
+    assertThat(evaluations).hasSize(1);
+    final RecordedEvent evaluation = evaluations.get(0);
+    assertThat(evaluation.getClass("memoizableType").getName()).isEqualTo(MemoizableObject.class.getName());
+    final String supplierType = evaluation.getClass("supplierType").getName();
+    assertThat(supplierType.startsWith(MemoizationEventsTest.class.getName())).as(supplierType).isTrue();
+    assertThat(evaluation.getClass("failureType")).isNull();
+    assertThat(evaluation.getDuration().toMillis()).isGreaterThanOrEqualTo(20L);
+  }
+
+  @Test
+  void testRecordsFailedEvaluations() throws IOException {
+    final ConcurrentMemoizableFunction<String, String> function = new ConcurrentMemoizableFunction<>(key -> {
+      sleep(20);
+      throw new IllegalStateException("failed " + key);
+    });
+
+    final List<RecordedEvent> events = record(() ->
+        assertThatThrownBy(() -> function.memoized("key")).isInstanceOf(IllegalStateException.class));
+
+    final List<RecordedEvent> evaluations = named(events, EVALUATION);
+    assertThat(evaluations).hasSize(1);
+    final RecordedEvent evaluation = evaluations.get(0);
+    assertThat(evaluation.getClass("memoizableType").getName())
+        .isEqualTo(ConcurrentMemoizableFunction.class.getName());
+    assertThat(evaluation.getString("label")).isEqualTo("key");
+    assertThat(evaluation.getClass("failureType").getName()).isEqualTo(IllegalStateException.class.getName());
+  }
+
+  @Test
+  void testRecordsInvalidations() throws IOException {
+    final ConcurrentMemoizableFunction<Integer, Integer> function = new ConcurrentMemoizableFunction<>(key -> key);
+    function.memoized(1);
+
+    final List<RecordedEvent> events = record(() -> {
+      function.invalidate(1);
+      function.invalidate(2);
+    });
+
+    final List<RecordedEvent> invalidations = named(events, INVALIDATION);
+    assertThat(invalidations).hasSize(1);
+    assertThat(invalidations.get(0).getClass("memoizableType").getName())
+        .isEqualTo(ConcurrentMemoizableFunction.class.getName());
+    assertThat(invalidations.get(0).getString("label")).isEqualTo("1");
+  }
+
+  private static List<RecordedEvent> record(final Runnable action) throws IOException {
+    final Path file = Files.createTempFile("memoize", ".jfr");
+    try (Recording recording = new Recording()) {
+      // The thresholds are those the events declare.
+      recording.enable(EVALUATION);
+      recording.enable(INVALIDATION);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name) {
+    final List<RecordedEvent> named = new ArrayList<>();
+    for (final RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name)) {
+        named.add(event);
+      }
+    }
+    return named;
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
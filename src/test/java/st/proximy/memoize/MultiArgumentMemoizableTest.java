@@ -0,0 +1,139 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MultiArgumentMemoizableTest {
+  private final List<Object> evaluated = new ArrayList<>();
+
+  @Test
+  void testBiFunctionHits() {
+    final MemoizableBiFunction<String, Integer, String> function = new MemoizableBiFunction<>(this::join);
+
+    assertThat(function.apply("a", 1)).isEqualTo("a1");
+    assertThat(function.apply("a", 1)).isEqualTo("a1");
+    assertThat(function.apply("a", 2)).isEqualTo("a2");
+    assertThat(this.evaluated).containsExactly("a1", "a2");
+  }
+
+  @Test
+  void testCollidingArgumentsSurviveResize() {
+    final MemoizableBiFunction<Colliding, Colliding, String> function = new MemoizableBiFunction<>(this::join);
+
+    for (int i = 0; i < 100; ++i) {
+      function.apply(new Colliding(i), new Colliding(-i));
+    }
+    for (int i = 0; i < 100; ++i) {
+      assertThat(function.hasMemoized(new Colliding(i), new Colliding(-i))).isTrue();
+      assertThat(function.apply(new Colliding(i), new Colliding(-i))).isEqualTo(i + "" + -i);
+    }
+    assertThat(function.hasMemoized(new Colliding(1), new Colliding(1))).isFalse();
+    assertThat(this.evaluated).hasSize(100);
+  }
+
+  @Test
+  void testNullArguments() {
+    final MemoizableTriFunction<String, String, String, String> function =
+        new MemoizableTriFunction<>((first, second, third) -> this.join(first, second + "" + third));
+
+    assertThat(function.apply(null, null, null)).isEqualTo("nullnullnull");
+    assertThat(function.apply(null, null, "c")).isEqualTo("nullnullc");
+    assertThat(function.apply(null, null, null)).isEqualTo("nullnullnull");
+    assertThat(this.evaluated).hasSize(2);
+  }
+
+  @Test
+  void testLongTernaryOperatorAcrossResize() {
+    final MemoizableLongTernaryOperator operator = new MemoizableLongTernaryOperator((first, second, third) -> {
+      this.evaluated.add(first);
+      return first * second * third;
+    });
+
+    for (long i = 0; i < 1000; ++i) {
+      operator.applyAsLong(i, i << 32, -i);
+    }
+    for (long i = 0; i < 1000; ++i) {
+      assertThat(operator.applyAsLong(i, i << 32, -i)).isEqualTo(i * (i << 32) * -i);
+    }
+    assertThat(operator.hasMemoized(1, 2, 3)).isFalse();
+    assertThat(this.evaluated).hasSize(1000);
+  }
+
+  @Test
+  void testDoubleArgumentsCompareLikeEquals() {
+    final MemoizableDoubleBinaryOperator operator = new MemoizableDoubleBinaryOperator((left, right) -> {
+      this.evaluated.add(left);
+      return left + right;
+    });
+
+    assertThat(operator.applyAsDouble(Double.NaN, 1)).isNaN();
+    assertThat(operator.applyAsDouble(Double.longBitsToDouble(0x7ff8000000000001L), 1)).isNaN();
+    operator.applyAsDouble(0.0, 1);
+    operator.applyAsDouble(-0.0, 1);
+    assertThat(this.evaluated).as("NaN matches itself, -0.0 differs from 0.0").hasSize(3);
+  }
+
+  @Test
+  void testDoubleTernaryOperatorHits() {
+    final MemoizableDoubleTernaryOperator operator = new MemoizableDoubleTernaryOperator((first, second, third) -> {
+      this.evaluated.add(first);
+      return first * second - third;
+    });
+
+    assertThat(operator.applyAsDouble(1.5, 2, Double.NaN)).isNaN();
+    assertThat(operator.applyAsDouble(1.5, 2, 0.5)).isEqualTo(2.5);
+    assertThat(operator.applyAsDouble(1.5, 2, 0.5)).isEqualTo(2.5);
+    assertThat(operator.hasMemoized(1.5, 2, Double.NaN)).isTrue();
+    assertThat(this.evaluated).hasSize(2);
+  }
+
+  private String join(final Object left, final Object right) {
+    final String joined = left + "" + right;
+    this.evaluated.add(joined);
+    return joined;
+  }
+
+  private static final class Colliding {
+    private final int value;
+
+    private Colliding(final int value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof Colliding && ((Colliding) other).value == this.value;
+    }
+
+    @Override
+    public int hashCode() {
+      return 7;
+    }
+
+    @Override
+    public String toString() {
+      return Integer.toString(this.value);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingMemoizableFunctionTest {
+  private final List<Long> evaluated = new ArrayList<>();
+  private final ConcurrentMemoizableFunction<Long, Long> delegate = new ConcurrentMemoizableFunction<>(this::square);
+
+  @Test
+  void testPrefetchesStride() {
+    final PrefetchingMemoizableFunction<Long, Long> function = new PrefetchingMemoizableFunction<>(this.delegate,
+        KeyPredictor.stride(Long::longValue, Long::valueOf, 2), Runnable::run, 1, 4);
+
+    function.memoized(0L);
+    function.memoized(10L);
+    function.memoized(20L);
+    assertThat(this.delegate.hasMemoized(30L)).isTrue();
+    assertThat(this.delegate.hasMemoized(40L)).isTrue();
+
+    assertThat(function.memoized(30L)).isEqualTo(900L);
+    assertThat(function.prefetchHitCount()).isEqualTo(1);
+    assertThat(this.evaluated).containsExactly(0L, 10L, 30L, 40L, 20L, 50L);
+  }
+
+  @Test
+  void testPrefetchesRepeatedSequence() {
+    final PrefetchingMemoizableFunction<Long, Long> function = new PrefetchingMemoizableFunction<>(this.delegate,
+        KeyPredictor.sequence(16, 1), Runnable::run, 1, 4);
+
+    function.memoized(7L);
+    function.memoized(3L);
+    this.delegate.invalidate(3L);
+    function.memoized(7L);
+
+    assertThat(this.delegate.hasMemoized(3L)).isTrue();
+    assertThat(function.prefetchCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testCountsDiscardedPrefetchAsWasted() {
+    final PrefetchingMemoizableFunction<Long, Long> function = new PrefetchingMemoizableFunction<>(this.delegate,
+        KeyPredictor.stride(Long::longValue, Long::valueOf, 1), Runnable::run, 1, 4);
+
+    function.memoized(1L);
+    function.memoized(2L);
+    function.invalidate(3L);
+
+    assertThat(function.prefetchCount()).isEqualTo(1);
+    assertThat(function.wastedPrefetchCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testCountsReadOfPendingPrefetchAsHit() {
+    final List<Runnable> tasks = new ArrayList<>();
+    final PrefetchingMemoizableFunction<Long, Long> function = new PrefetchingMemoizableFunction<>(this.delegate,
+        KeyPredictor.stride(Long::longValue, Long::valueOf, 1), tasks::add, 1, 4);
+
+    function.memoized(1L);
+    function.memoized(2L);
+    assertThat(tasks).hasSize(1);
+
+    assertThat(function.memoized(3L)).isEqualTo(9L);
+    tasks.get(0).run();
+    assertThat(function.prefetchHitCount()).isEqualTo(1);
+    assertThat(function.wastedPrefetchCount()).isZero();
+    assertThat(this.evaluated).containsExactly(1L, 2L, 3L);
+  }
+
+  private long square(final long value) {
+    this.evaluated.add(value);
+    return value * value;
+  }
+}
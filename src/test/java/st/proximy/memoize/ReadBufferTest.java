@@ -0,0 +1,72 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ReadBufferTest {
+  private final ReadBuffer<Integer> buffer = new ReadBuffer<>();
+
+  @Test
+  void testDrainThreshold() {
+    for (int i = 1; i < 8; ++i) {
+      assertThat(this.buffer.offer(i)).as("offer %s", i).isFalse();
+    }
+    assertThat(this.buffer.offer(8)).as("offer 8").isTrue();
+
+    assertThat(this.drain()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+    assertThat(this.drain()).isEmpty();
+    assertThat(this.buffer.offer(9)).as("offer after drain").isFalse();
+  }
+
+  @Test
+  void testDropsWhenFull() {
+    for (int i = 1; i <= 20; ++i) {
+      this.buffer.offer(i);
+    }
+
+    assertThat(this.drain()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16);
+  }
+
+  @Test
+  void testDrainsEveryThread() throws InterruptedException {
+    for (int thread = 0; thread < 4; ++thread) {
+      final int first = thread * 3;
+      final Thread offering = new Thread(() -> {
+        for (int i = first; i < first + 3; ++i) {
+          this.buffer.offer(i);
+        }
+      });
+      offering.start();
+      offering.join();
+    }
+
+    assertThat(this.drain()).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+  }
+
+  private List<Integer> drain() {
+    final List<Integer> drained = new ArrayList<>();
+    this.buffer.drainTo(drained::add);
+    return drained;
+  }
+}
@@ -0,0 +1,60 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class StableMemoizableTest {
+  private final AtomicInteger count = new AtomicInteger();
+  private final StableMemoizable<String> memoizable = new StableMemoizable<>(
+      () -> "value " + this.count.incrementAndGet());
+
+  @Test
+  void testInvokerMemoizes() throws Throwable {
+    final MethodHandle invoker = this.memoizable.invoker();
+
+    assertThat(this.memoizable.hasMemoized()).isFalse();
+    assertThat((Object) invoker.invokeExact()).isEqualTo("value 1");
+    assertThat(this.memoizable.memoized()).isEqualTo("value 1");
+    assertThat(this.count.get()).as("single interaction").isOne();
+  }
+
+  @Test
+  void testEvaluateDataRelinks() throws Throwable {
+    this.memoizable.eager();
+    this.memoizable.evaluateData();
+
+    assertThat(this.count.get()).isEqualTo(2);
+    assertThat((Object) this.memoizable.invoker().invokeExact()).isEqualTo("value 2");
+    assertThat(this.memoizable.memoized()).isEqualTo("value 2");
+  }
+
+  @Test
+  void testMemoizedLinksInvoker() throws Throwable {
+    assertThat(this.memoizable.memoized()).isEqualTo("value 1");
+    assertThat(this.memoizable.memoized()).isEqualTo("value 1");
+
+    assertThat((Object) this.memoizable.invoker().invokeExact()).isEqualTo("value 1");
+    assertThat(this.count.get()).as("single interaction").isOne();
+  }
+}
@@ -0,0 +1,105 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class TieredMemoizableFunctionTest {
+  private final AtomicInteger evaluations = new AtomicInteger();
+  private final AtomicInteger sharedReads = new AtomicInteger();
+  private final KeyedMemoizable<Integer, String> shared = new CountingMemoizable();
+
+  @Test
+  void testRepeatedReadsStayInThread() {
+    final TieredMemoizableFunction<Integer, String> function = new TieredMemoizableFunction<>(this.shared);
+
+    assertThat(function.memoized(1)).isEqualTo("1 #1");
+    assertThat(function.memoized(1)).isEqualTo("1 #1");
+    assertThat(function.memoized(1)).isEqualTo("1 #1");
+    assertThat(this.sharedReads.get()).isOne();
+  }
+
+  @Test
+  void testInvalidateClearsOtherThreads() throws InterruptedException {
+    final TieredMemoizableFunction<Integer, String> function = new TieredMemoizableFunction<>(this.shared);
+    function.memoized(1);
+
+    runInOtherThread(() -> function.invalidate(1));
+    assertThat(function.memoized(1)).isEqualTo("1 #2");
+    assertThat(this.sharedReads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testEvaluateDataClearsOtherThreads() throws InterruptedException {
+    final TieredMemoizableFunction<Integer, String> function = new TieredMemoizableFunction<>(this.shared);
+    function.memoized(1);
+
+    final AtomicReference<String> evaluated = new AtomicReference<>();
+    runInOtherThread(() -> evaluated.set(function.evaluateData(1)));
+    assertThat(evaluated.get()).isEqualTo("1 #2");
+    assertThat(function.memoized(1)).isEqualTo("1 #2");
+  }
+
+  @Test
+  void testCollidingKeysReplaceSlot() {
+    final TieredMemoizableFunction<Integer, String> function = new TieredMemoizableFunction<>(this.shared, 1);
+
+    function.memoized(1);
+    function.memoized(2);
+    assertThat(function.memoized(1)).isEqualTo("1 #1");
+    assertThat(this.sharedReads.get()).as("each read missed the single slot").isEqualTo(3);
+    assertThat(this.evaluations.get()).isEqualTo(2);
+  }
+
+  private static void runInOtherThread(final Runnable runnable) throws InterruptedException {
+    final Thread thread = new Thread(runnable);
+    thread.start();
+    thread.join();
+  }
+
+  private final class CountingMemoizable implements KeyedMemoizable<Integer, String> {
+    private final ConcurrentMemoizableFunction<Integer, String> delegate = new ConcurrentMemoizableFunction<>(
+        key -> key + " #" + TieredMemoizableFunctionTest.this.evaluations.incrementAndGet());
+
+    @Override
+    public String evaluateData(final Integer key) {
+      return this.delegate.evaluateData(key);
+    }
+
+    @Override
+    public String memoized(final Integer key) {
+      TieredMemoizableFunctionTest.this.sharedReads.incrementAndGet();
+      return this.delegate.memoized(key);
+    }
+
+    @Override
+    public boolean hasMemoized(final Integer key) {
+      return this.delegate.hasMemoized(key);
+    }
+
+    @Override
+    public void invalidate(final Integer key) {
+      this.delegate.invalidate(key);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import st.proximy.memoize.Memoizable;
+import st.proximy.memoize.MemoizableObject;
+
+class MemoizablePublisherTest {
+  private final AtomicInteger evaluations = new AtomicInteger();
+
+  @Test
+  void testReadsValueOnRequest() {
+    final MemoizablePublisher<String> publisher =
+        new MemoizablePublisher<>(new MemoizableObject<>(() -> "value #" + this.evaluations.incrementAndGet()));
+
+    final RecordingSubscriber subscriber = new RecordingSubscriber(publisher, 0);
+    assertThat(subscriber.signals).containsExactly("onSubscribe");
+    assertThat(this.evaluations.get()).isZero();
+
+    subscriber.subscription.request(1);
+    assertThat(subscriber.values).containsExactly("value #1");
+    assertThat(subscriber.signals).containsExactly("onSubscribe", "onNext", "onComplete");
+
+    subscriber.subscription.request(1);
+    assertThat(subscriber.signals).hasSize(3);
+  }
+
+  @Test
+  void testReplaysMemoizedValueToLateSubscriber() {
+    final MemoizablePublisher<String> publisher =
+        new MemoizablePublisher<>(new MemoizableObject<>(() -> "value #" + this.evaluations.incrementAndGet()));
+
+    final RecordingSubscriber early = new RecordingSubscriber(publisher, 1);
+    final RecordingSubscriber late = new RecordingSubscriber(publisher, Long.MAX_VALUE);
+
+    assertThat(early.values).containsExactly("value #1");
+    assertThat(late.values).containsExactly("value #1");
+    assertThat(late.signals).containsExactly("onSubscribe", "onNext", "onComplete");
+    assertThat(this.evaluations.get()).isOne();
+  }
+
+  @Test
+  void testReplaysFailureToEachSubscriber() {
+    final IllegalStateException failure = new IllegalStateException("failed");
+    final MemoizablePublisher<String> publisher = new MemoizablePublisher<>(new FailingMemoizable(failure));
+
+    final RecordingSubscriber early = new RecordingSubscriber(publisher, 1);
+    final RecordingSubscriber late = new RecordingSubscriber(publisher, 1);
+
+    assertThat(early.error).isSameAs(failure);
+    assertThat(late.error).isSameAs(failure);
+    assertThat(late.signals).containsExactly("onSubscribe", "onError");
+    assertThat(this.evaluations.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testFailsNullValue() {
+    final MemoizablePublisher<String> publisher = new MemoizablePublisher<>(new MemoizableObject<>(() -> null));
+
+    final RecordingSubscriber subscriber = new RecordingSubscriber(publisher, 1);
+    assertThat(subscriber.error).isInstanceOf(NullPointerException.class);
+    assertThat(subscriber.values).isEmpty();
+  }
+
+  @Test
+  void testFailsNonPositiveRequest() {
+    final MemoizablePublisher<String> publisher =
+        new MemoizablePublisher<>(new MemoizableObject<>(() -> "value #" + this.evaluations.incrementAndGet()));
+
+    final RecordingSubscriber subscriber = new RecordingSubscriber(publisher, 0);
+    subscriber.subscription.request(0);
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    assertThat(this.evaluations.get()).isZero();
+  }
+
+  @Test
+  void testCancelledSubscriptionReadsNothing() {
+    final MemoizablePublisher<String> publisher =
+        new MemoizablePublisher<>(new MemoizableObject<>(() -> "value #" + this.evaluations.incrementAndGet()));
+
+    final RecordingSubscriber subscriber = new RecordingSubscriber(publisher, 0);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(1);
+    assertThat(subscriber.signals).containsExactly("onSubscribe");
+    assertThat(this.evaluations.get()).isZero();
+  }
+
+  /**
+   * A memoizable whose every evaluation fails.
+   */
+  private final class FailingMemoizable implements Memoizable<String> {
+    private final RuntimeException failure;
+
+    private FailingMemoizable(final RuntimeException failure) {
+      this.failure = failure;
+    }
+
+    @Override
+    public String evaluateData() {
+      MemoizablePublisherTest.this.evaluations.incrementAndGet();
+      throw this.failure;
+    }
+
+    @Override
+    public String memoized() {
+      return this.evaluateData();
+    }
+  }
+
+  private static final class RecordingSubscriber implements Subscriber<String> {
+    private final List<String> values = new ArrayList<>();
+    private final List<String> signals = new ArrayList<>();
+    private final long initialRequest;
+    private Subscription subscription;
+    private Throwable error;
+
+    private RecordingSubscriber(final Publisher<String> publisher, final long initialRequest) {
+      this.initialRequest = initialRequest;
+      publisher.subscribe(this);
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+      this.signals.add("onSubscribe");
+      this.subscription = subscription;
+      if (this.initialRequest > 0) {
+        subscription.request(this.initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(final String value) {
+      this.signals.add("onNext");
+      this.values.add(value);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      this.signals.add("onError");
+      this.error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      this.signals.add("onComplete");
+    }
+  }
+}
@@ -0,0 +1,258 @@
+//
+// memoize - Memoize the return values of an expensive, dynamic state method.
+// Copyright (C) 2021 Mariell Hoversholm
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published
+// by the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with this program.  If not, see <https://www.gnu.org/licenses/>.
+//
+
+package st.proximy.memoize.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+class ReplayingMemoizableTest {
+  private final ManualPublisher source = new ManualPublisher();
+  private final ReplayingMemoizable<Integer> memoizable = new ReplayingMemoizable<>(this.source);
+
+  @Test
+  void testReadsLatestValue() {
+    final ReplayingMemoizable<Integer> emitting = new ReplayingMemoizable<>(new ManualPublisher(1, 2, 3));
+
+    assertThat(emitting.memoized()).isEqualTo(3);
+    assertThat(emitting.memoized()).isEqualTo(3);
+    assertThat(emitting.evaluateData()).isEqualTo(3);
+  }
+
+  @Test
+  void testReplaysToLateSubscriber() {
+    final RecordingSubscriber early = new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    this.source.emit(1);
+    this.source.emit(2);
+    final RecordingSubscriber late = new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    this.source.emit(3);
+
+    assertThat(early.values).containsExactly(1, 2, 3);
+    assertThat(late.values).containsExactly(2, 3);
+    assertThat(this.memoizable.memoized()).isEqualTo(3);
+  }
+
+  @Test
+  void testConflatesWithoutDemand() {
+    final RecordingSubscriber subscriber = new RecordingSubscriber(this.memoizable, 0);
+    this.source.emit(1);
+    this.source.emit(2);
+    this.source.emit(3);
+    assertThat(subscriber.values).isEmpty();
+
+    subscriber.subscription.request(1);
+    subscriber.subscription.request(1);
+    assertThat(subscriber.values).as("only the latest value").containsExactly(3);
+
+    this.source.emit(4);
+    this.source.emit(5);
+    assertThat(subscriber.values).containsExactly(3, 4);
+  }
+
+  @Test
+  void testSubscribesToSourceOnce() {
+    new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    new RecordingSubscriber(this.memoizable, 1);
+    this.source.emit(1);
+
+    assertThat(this.memoizable.memoized()).isEqualTo(1);
+    assertThat(this.source.subscribers).hasSize(1);
+  }
+
+  @Test
+  void testResubscribesAfterInvalidate() {
+    final RecordingSubscriber subscriber = new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    this.source.emit(1);
+
+    this.memoizable.invalidate();
+    assertThat(this.memoizable.hasMemoized()).isFalse();
+    assertThat(this.source.subscribers).hasSize(2);
+    assertThat(this.source.subscribers.get(0).cancelled).isTrue();
+
+    this.source.emit(2);
+    assertThat(subscriber.values).containsExactly(1, 2);
+    assertThat(this.memoizable.memoized()).isEqualTo(2);
+  }
+
+  @Test
+  void testReplaysErrorToLateSubscriber() {
+    final RecordingSubscriber early = new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    this.source.emit(1);
+    final IllegalStateException failure = new IllegalStateException("failed");
+    this.source.fail(failure);
+
+    final RecordingSubscriber late = new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    assertThat(early.values).containsExactly(1);
+    assertThat(early.error).isSameAs(failure);
+    assertThat(late.values).containsExactly(1);
+    assertThat(late.error).isSameAs(failure);
+    assertThat(late.signals).containsExactly("onSubscribe", "onNext", "onError");
+    assertThat(this.source.subscribers).hasSize(1);
+  }
+
+  @Test
+  void testReplaysValueThenCompletionToLateSubscriber() {
+    new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    this.source.emit(1);
+    this.source.complete();
+
+    final RecordingSubscriber late = new RecordingSubscriber(this.memoizable, 0);
+    assertThat(late.signals).containsExactly("onSubscribe");
+
+    late.subscription.request(1);
+    assertThat(late.values).containsExactly(1);
+    assertThat(late.signals).containsExactly("onSubscribe", "onNext", "onComplete");
+    assertThat(this.memoizable.memoized()).isEqualTo(1);
+  }
+
+  @Test
+  void testSignalsNothingUntilSubscribed() {
+    new RecordingSubscriber(this.memoizable, Long.MAX_VALUE);
+    final List<String> signals = new ArrayList<>();
+    this.memoizable.subscribe(new Subscriber<Integer>() {
+      private boolean subscribing = false;
+
+      @Override
+      public void onSubscribe(final Subscription subscription) {
+        this.subscribing = true;
+        subscription.request(1);
+        // The source terminating meanwhile must not signal this before it has its subscription.
+        ReplayingMemoizableTest.this.source.complete();
+        signals.add("onSubscribe");
+        this.subscribing = false;
+      }
+
+      @Override
+      public void onNext(final Integer value) {
+        signals.add(this.subscribing ? "early onNext" : "onNext");
+      }
+
+      @Override
+      public void onError(final Throwable throwable) {
+        signals.add(this.subscribing ? "early onError" : "onError");
+      }
+
+      @Override
+      public void onComplete() {
+        signals.add(this.subscribing ? "early onComplete" : "onComplete");
+      }
+    });
+    assertThat(signals).containsExactly("onSubscribe", "onComplete");
+  }
+
+  /**
+   * A synchronous publisher emitting to its latest subscriber, or emitting fixed values to each subscriber.
+   */
+  private static final class ManualPublisher implements Publisher<Integer> {
+    private final int[] values;
+    private final List<ManualSubscription> subscribers = new ArrayList<>();
+
+    private ManualPublisher(final int... values) {
+      this.values = values;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super Integer> subscriber) {
+      final ManualSubscription subscription = new ManualSubscription(subscriber);
+      this.subscribers.add(subscription);
+      subscriber.onSubscribe(subscription);
+      for (final int value : this.values) {
+        subscriber.onNext(value);
+      }
+    }
+
+    private void emit(final int value) {
+      final ManualSubscription subscription = this.subscribers.get(this.subscribers.size() - 1);
+      assertThat(subscription.requested).isGreaterThan(0);
+      subscription.subscriber.onNext(value);
+    }
+
+    private void complete() {
+      this.subscribers.get(this.subscribers.size() - 1).subscriber.onComplete();
+    }
+
+    private void fail(final Throwable throwable) {
+      this.subscribers.get(this.subscribers.size() - 1).subscriber.onError(throwable);
+    }
+  }
+
+  private static final class ManualSubscription implements Subscription {
+    private final Subscriber<? super Integer> subscriber;
+    private long requested = 0;
+    private boolean cancelled = false;
+
+    private ManualSubscription(final Subscriber<? super Integer> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(final long amount) {
+      this.requested += amount;
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+    }
+  }
+
+  private static final class RecordingSubscriber implements Subscriber<Integer> {
+    private final List<Integer> values = new ArrayList<>();
+    private final List<String> signals = new ArrayList<>();
+    private final long initialRequest;
+    private Subscription subscription;
+    private Throwable error;
+
+    private RecordingSubscriber(final Publisher<Integer> publisher, final long initialRequest) {
+      this.initialRequest = initialRequest;
+      publisher.subscribe(this);
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+      this.signals.add("onSubscribe");
+      this.subscription = subscription;
+      if (this.initialRequest > 0) {
+        subscription.request(this.initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(final Integer value) {
+      this.signals.add("onNext");
+      this.values.add(value);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      this.signals.add("onError");
+      this.error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      this.signals.add("onComplete");
+    }
+  }
+}